@@ -0,0 +1,27 @@
+#!/bin/sh
+# Starts the exploded application.
+#   CDS_TRAIN=1     training run: start once against a reachable database, exit when ready,
+#                   and write the AppCDS archive to /app/cds/app.jsa (mount /app/cds as a volume
+#                   or run this in a build step and commit the image).
+#   FAST_STARTUP=0  disable the fast-startup profile.
+set -e
+cd /app
+
+CP="application.jar:BOOT-INF/lib/*"
+MAIN="com.rural.sports.RuralSportsPlatformApplication"
+ARCHIVE=/app/cds/app.jsa
+JVM_OPTS="${JAVA_OPTS:-} -Xshare:auto"
+APP_OPTS=""
+
+if [ "${FAST_STARTUP:-1}" = "1" ]; then
+    APP_OPTS="--spring.profiles.active=fast-startup"
+fi
+
+if [ "${CDS_TRAIN:-0}" = "1" ]; then
+    exec java $JVM_OPTS -XX:ArchiveClassesAtExit=$ARCHIVE -cp "$CP" $MAIN $APP_OPTS --startup.exit-after-ready=true "$@"
+fi
+
+if [ -f "$ARCHIVE" ]; then
+    JVM_OPTS="$JVM_OPTS -XX:SharedArchiveFile=$ARCHIVE"
+fi
+exec java $JVM_OPTS -cp "$CP" $MAIN $APP_OPTS "$@"
@@ -0,0 +1,59 @@
+#!/bin/sh
+# Shows what a login burst does to the latency of other endpoints, with bcrypt on the request
+# threads (password-hashing.threads=-1) and on the bounded hashing pool (default).
+#
+# Each mode gets a fresh application and a registered benchmark user. For SECONDS seconds,
+# CLIENTS clients GET PATH (default /api/users/me) while LOGIN_CLIENTS clients log in repeatedly;
+# the GET load is also measured alone first as a baseline. Compare the p99 of the GET lines.
+# Rejected logins (503 while the pool is full) show up as errors on the login line.
+#
+# Usage: scripts/login-burst-benchmark.sh [seconds] [extra application args...]
+#   e.g. LOGIN_CLIENTS=200 scripts/login-burst-benchmark.sh 30 \
+#        --spring.datasource.url=jdbc:mysql://db:3306/village_sports
+# Requires a built jar (mvn -B package), a reachable database and curl.
+set -e
+cd "$(dirname "$0")/.."
+
+SECONDS_PER_RUN=${1:-20}
+[ $# -gt 0 ] && shift
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+CLIENTS=${CLIENTS:-20}
+LOGIN_CLIENTS=${LOGIN_CLIENTS:-100}
+BENCH_PATH=${BENCH_PATH:-/api/users/me}
+JAR=$(pwd)/$(ls target/*.jar | grep -v original | head -n 1)
+WORK=$(pwd)/target/login-burst-benchmark
+BASE="http://localhost:$PORT"
+USER=bench$$
+mkdir -p "$WORK"
+
+load() {
+    "$JAVA" -cp "$JAR" -Dloader.main=com.rural.sports.tools.HttpLoadTest org.springframework.boot.loader.PropertiesLauncher "$@"
+}
+
+for mode in inline bounded; do
+    threads=0
+    [ "$mode" = inline ] && threads=-1
+    "$JAVA" -jar "$JAR" --server.port=$PORT --password-hashing.threads=$threads "$@" >"$WORK/$mode.log" 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$BASE/api/users/me"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$mode: application exited, see $WORK/$mode.log" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+    curl -s -o /dev/null -X POST "$BASE/api/users/register" -H 'Content-Type: application/json' \
+        -d "{\"username\":\"$USER\",\"password\":\"bench\",\"role\":\"VILLAGER\",\"status\":\"APPROVED\",\"village\":\"bench\"}"
+
+    printf "%-8s baseline  " "$mode"
+    load "$BASE" "$BENCH_PATH" "$CLIENTS" "$SECONDS_PER_RUN" "$USER" bench
+    load "$BASE" /api/login "$LOGIN_CLIENTS" "$SECONDS_PER_RUN" "$USER" bench >"$WORK/$mode-logins.txt" &
+    logins=$!
+    printf "%-8s burst     " "$mode"
+    load "$BASE" "$BENCH_PATH" "$CLIENTS" "$SECONDS_PER_RUN" "$USER" bench
+    wait $logins
+    printf "%-8s logins    " "$mode"
+    cat "$WORK/$mode-logins.txt"
+    kill $pid && wait $pid 2>/dev/null || true
+done
@@ -0,0 +1,65 @@
+#!/bin/sh
+# Compares startup of the plain fat jar against the fast-startup mode
+# (exploded layers + fast-startup profile + AppCDS archive).
+#
+# Reports, per run, the time from launching the JVM until the first HTTP response
+# and the resident set size (VmRSS) at that moment.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [extra application args...]
+#   e.g. scripts/startup-benchmark.sh 5 --spring.datasource.url=jdbc:mysql://db:3306/village_sports
+# Requires a built jar (mvn -B package), a JDK (for the jar tool), a reachable database and curl.
+set -e
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+[ $# -gt 0 ] && shift
+PORT=${PORT:-18080}
+JAR=$(pwd)/$(ls target/*.jar | grep -v original | head -n 1)
+WORK=$(pwd)/target/startup-benchmark
+URL="http://localhost:$PORT/api/users/me"
+
+rm -rf "$WORK" && mkdir -p "$WORK/exploded"
+(cd "$WORK" && java -Djarmode=layertools -jar "$JAR" extract --destination layers >/dev/null)
+for layer in dependencies snapshot-dependencies; do
+    cp -r "$WORK/layers/$layer/." "$WORK/exploded/"
+done
+# AppCDS only archives classes loaded from jars, so the application classes are re-packed.
+(cd "$WORK/layers/application/BOOT-INF/classes" && jar cf "$WORK/exploded/application.jar" .)
+CP="application.jar:BOOT-INF/lib/*"
+MAIN=com.rural.sports.RuralSportsPlatformApplication
+
+now_ms() {
+    date +%s%3N
+}
+
+# measure <label> <command...>: starts the command, waits for the first response, prints a result row
+measure() {
+    label=$1; shift
+    start=$(now_ms)
+    "$@" --server.port=$PORT >"$WORK/$label.log" 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$URL"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$label: application exited, see $WORK/$label.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    rss=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+    kill $pid && wait $pid 2>/dev/null || true
+    printf "%-10s %8d ms %8d MB\n" "$label" $((end - start)) $((rss / 1024))
+}
+
+echo "Training AppCDS archive..."
+(cd "$WORK/exploded" && java -XX:ArchiveClassesAtExit=app.jsa -cp "$CP" $MAIN \
+    --spring.profiles.active=fast-startup --startup.exit-after-ready=true --server.port=$PORT "$@" >"$WORK/training.log" 2>&1)
+
+printf "%-10s %11s %11s\n" mode first-req rss
+i=0
+while [ $i -lt "$RUNS" ]; do
+    measure baseline java -jar "$JAR" "$@"
+    (cd "$WORK/exploded" && measure fast java -XX:SharedArchiveFile=app.jsa -cp "$CP" $MAIN \
+        --spring.profiles.active=fast-startup "$@")
+    i=$((i + 1))
+done
@@ -0,0 +1,47 @@
+#!/bin/sh
+# Compares request throughput and tail latency with platform request threads (Tomcat pool)
+# against request-threads.mode=virtual, at increasing numbers of concurrent clients.
+#
+# Each mode gets a fresh application; a benchmark user is registered and every client
+# repeatedly GETs PATH (default /api/users/me: authentication plus one indexed query).
+#
+# Usage: scripts/thread-mode-benchmark.sh [seconds] [extra application args...]
+#   e.g. JAVA=/opt/jdk-21/bin/java CLIENTS="200 1000 2000" scripts/thread-mode-benchmark.sh 30 \
+#        --spring.datasource.url=jdbc:mysql://db:3306/village_sports --spring.datasource.hikari.maximum-pool-size=50
+# Virtual mode needs a Java 21+ runtime (JAVA); on older runtimes it falls back to platform threads
+# and says so in the application log. Requires a built jar (mvn -B package), a reachable database and curl.
+set -e
+cd "$(dirname "$0")/.."
+
+SECONDS_PER_RUN=${1:-20}
+[ $# -gt 0 ] && shift
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+CLIENTS=${CLIENTS:-"100 500 1000"}
+BENCH_PATH=${BENCH_PATH:-/api/users/me}
+JAR=$(pwd)/$(ls target/*.jar | grep -v original | head -n 1)
+WORK=$(pwd)/target/thread-mode-benchmark
+BASE="http://localhost:$PORT"
+USER=bench$$
+mkdir -p "$WORK"
+
+for mode in platform virtual; do
+    "$JAVA" -jar "$JAR" --server.port=$PORT --request-threads.mode=$mode "$@" >"$WORK/$mode.log" 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$BASE/api/users/me"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$mode: application exited, see $WORK/$mode.log" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+    curl -s -o /dev/null -X POST "$BASE/api/users/register" -H 'Content-Type: application/json' \
+        -d "{\"username\":\"$USER\",\"password\":\"bench\",\"role\":\"VILLAGER\",\"status\":\"APPROVED\",\"village\":\"bench\"}"
+
+    for clients in $CLIENTS; do
+        printf "%-9s " "$mode"
+        "$JAVA" -cp "$JAR" -Dloader.main=com.rural.sports.tools.HttpLoadTest org.springframework.boot.loader.PropertiesLauncher \
+            "$BASE" "$BENCH_PATH" "$clients" "$SECONDS_PER_RUN" "$USER" bench
+    done
+    kill $pid && wait $pid 2>/dev/null || true
+done
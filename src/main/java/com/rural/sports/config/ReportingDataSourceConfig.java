@@ -0,0 +1,79 @@
+package com.rural.sports.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits the connection pool in two when bulkhead.reporting.pool-size > 0: requests in the
+ * reporting bulkhead (see BulkheadFilter) borrow connections from a small pool of their own, so a
+ * burst of exports or full-table lists can never take the connections borrow and registration need.
+ * Everything else, including Flyway and background jobs, uses the main pool (spring.datasource.hikari.*).
+ */
+@Configuration
+@ConditionalOnExpression("${bulkhead.reporting.pool-size:0} > 0")
+public class ReportingDataSourceConfig {
+
+    private static final ThreadLocal<Boolean> REPORTING = new ThreadLocal<>();
+
+    /**
+     * Routes the current thread's next connections to the reporting pool (true) or back to the main pool.
+     */
+    public static void useReportingPool(boolean reporting) {
+        if (reporting) {
+            REPORTING.set(Boolean.TRUE);
+        } else {
+            REPORTING.remove();
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource mainDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("main");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource reportingDataSource(DataSourceProperties properties,
+                                                @Value("${bulkhead.reporting.pool-size}") int poolSize,
+                                                @Value("${bulkhead.reporting.connection-timeout-ms:30000}") long connectionTimeoutMs) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("reporting");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("mainDataSource") DataSource main,
+                                 @Qualifier("reportingDataSource") DataSource reporting) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return REPORTING.get() != null ? "reporting" : "main";
+            }
+        };
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put("main", main);
+        targets.put("reporting", reporting);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(main);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
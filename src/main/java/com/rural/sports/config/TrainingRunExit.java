@@ -0,0 +1,26 @@
+package com.rural.sports.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shuts the application down as soon as it is ready when startup.exit-after-ready=true.
+ * Used for the AppCDS training run, where the JVM writes the class archive on exit.
+ */
+@Component
+@ConditionalOnProperty(name = "startup.exit-after-ready", havingValue = "true")
+public class TrainingRunExit {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit() {
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,65 @@
+package com.rural.sports.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in mode (request-threads.mode=virtual) that runs every Tomcat request, and so every blocking
+ * service and JDBC call it makes, on its own virtual thread instead of the 200-thread platform pool.
+ * <p>
+ * The project targets Java 17, so the virtual-thread API is looked up reflectively; on a JVM
+ * without it (before 21) the mode logs a warning and Tomcat keeps its platform pool. With virtual
+ * threads the database pool becomes the concurrency limit, so size spring.datasource.hikari.*
+ * for it.
+ * <p>
+ * Limitation: the JDBC stack this project ships with, mysql-connector-java 8.0.31 and HikariCP
+ * 4.0.3, blocks inside synchronized blocks, and on Java 21 a virtual thread blocked there pins its
+ * carrier thread. Every request waiting on the database can therefore still hold a carrier, so
+ * this mode does not raise throughput past the carrier count for database-bound requests until
+ * the driver is com.mysql:mysql-connector-j 9.x and HikariCP is 5.1 or later. Check for pinning
+ * with -Djdk.tracePinnedThreads=full before relying on it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "request-threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor("http-virtual-");
+        if (executor == null) {
+            log.warn("request-threads.mode=virtual needs Java 21 or later (running {}); keeping platform request threads",
+                    System.getProperty("java.version"));
+            return protocolHandler -> { };
+        }
+        log.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory()), or null
+     * when the running JVM has no virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.security.BoundedPasswordEncoder;
+import com.rural.sports.web.BulkheadFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/bulkheads")
+public class BulkheadController {
+
+    @Autowired
+    private BulkheadFilter bulkheadFilter;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    /**
+     * GET /api/bulkheads -> Limits, active and waiting requests, and admitted/rejected/timed-out counts per bulkhead,
+     * plus the password hashing pool
+     */
+    @GetMapping
+    public Map<String, Map<String, Object>> getBulkheads() {
+        Map<String, Map<String, Object>> metrics = bulkheadFilter.metrics();
+        metrics.put("passwordHashing", passwordEncoder.metrics());
+        return metrics;
+    }
+}
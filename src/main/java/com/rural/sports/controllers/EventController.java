@@ -1,8 +1,11 @@
 package com.rural.sports.controllers;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Event;
 import com.rural.sports.services.EventService;
+import com.rural.sports.services.ResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,14 +19,29 @@ public class EventController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping
     public List<Event> getAllEvents() {
         return eventService.getAllEvents();
     }
 
+    /**
+     * GET /api/events/changes?since=<token> -> Rows created, updated or deleted after the token
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Event> getChanges(@RequestParam(required = false) String since, @RequestParam(defaultValue = "500") int limit) {
+        return eventService.getChanges(since, Math.max(1, Math.min(limit, 5000)));
+    }
+
+    /**
+     * GET /api/events/{id} -> Event detail; concurrent requests share one load and one serialized body
+     */
     @GetMapping("/{id}")
-    public Event getEventById(@PathVariable Long id) {
-        return eventService.getEventById(id);
+    public ResponseEntity<byte[]> getEventById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return responseCache.get("event:" + id, accept, () -> eventService.getEventById(id));
     }
 
     /**
@@ -0,0 +1,38 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.services.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * GET /api/export/{users|materials|loans}?format=csv|ndjson -> Streams the whole table for admin reporting
+     */
+    @GetMapping("/{table}")
+    public void export(@PathVariable String table, @RequestParam(defaultValue = "csv") String format,
+                       HttpServletResponse response) throws IOException {
+        if (!exportService.supports(table)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown export " + table);
+        }
+        if ("ndjson".equals(format)) {
+            response.setContentType("application/x-ndjson");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + table + ".ndjson\"");
+            exportService.exportNdjson(table, response.getOutputStream());
+        } else {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + table + ".csv\"");
+            exportService.exportCsv(table, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.models.User;
+import com.rural.sports.services.HomeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+
+    @Autowired
+    private HomeService homeService;
+
+    /**
+     * GET /api/home?noticesSince=2024-05-01T08:00:00 -> Profile, borrowed materials, registrations,
+     * teams and unread notices of the current user in one response
+     */
+    @GetMapping
+    public Map<String, Object> getHome(@RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime noticesSince) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = (User) auth.getPrincipal();
+        return homeService.getHome(user.getId(), noticesSince);
+    }
+}
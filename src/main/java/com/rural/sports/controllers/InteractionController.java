@@ -1,5 +1,6 @@
 package com.rural.sports.controllers;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Interaction;
 import com.rural.sports.models.InteractionType;
 import com.rural.sports.services.InteractionService;
@@ -17,9 +18,37 @@ public class InteractionController {
     @Autowired
     private InteractionService interactionService;
 
+    /**
+     * GET /api/interactions?types=NOTICE&sort=views|likes -> Posts of the given types, optionally most viewed or liked first
+     */
     @GetMapping
-    public List<Interaction> getInteractions(@RequestParam List<InteractionType> types) {
-        return interactionService.getInteractions(types);
+    public List<Interaction> getInteractions(@RequestParam List<InteractionType> types, @RequestParam(required = false) String sort) {
+        return interactionService.getInteractions(types, sort);
+    }
+
+    /**
+     * GET /api/interactions/changes?since=<token> -> Rows created, updated or deleted after the token
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Interaction> getChanges(@RequestParam(required = false) String since, @RequestParam(defaultValue = "500") int limit) {
+        return interactionService.getChanges(since, Math.max(1, Math.min(limit, 5000)));
+    }
+
+    /**
+     * GET /api/interactions/{id} -> One post; reading a notice counts as a view
+     */
+    @GetMapping("/{id}")
+    public Interaction getInteraction(@PathVariable Long id) {
+        return interactionService.getInteraction(id);
+    }
+
+    /**
+     * POST /api/interactions/{id}/like -> Likes a notice
+     * Likes are anonymous taps: every call counts, they are not recorded per user.
+     */
+    @PostMapping("/{id}/like")
+    public ResponseEntity<Map<String, Boolean>> likeInteraction(@PathVariable Long id) {
+        return ResponseEntity.ok(Map.of("success", interactionService.likeInteraction(id)));
     }
 
     @PostMapping
@@ -0,0 +1,74 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.models.Match;
+import com.rural.sports.models.TeamStanding;
+import com.rural.sports.services.LeaderboardService;
+import com.rural.sports.services.MatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class MatchController {
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    /**
+     * POST /api/matches -> Schedules a match between two teams of an event
+     * The frontend sends { eventId, homeTeamId, awayTeamId, playedAt (epoch ms, optional) }
+     */
+    @PostMapping("/matches")
+    public Match createMatch(@RequestBody Map<String, Object> payload) {
+        return matchService.createMatch(payload);
+    }
+
+    /**
+     * PUT /api/matches/{id}/score -> Records the current score
+     * The frontend sends { homeScore, awayScore, status: SCHEDULED | LIVE | FINISHED }; scores are whole numbers >= 0
+     */
+    @PutMapping("/matches/{id}/score")
+    public Match updateScore(@PathVariable Long id, @RequestBody Map<String, Object> payload) {
+        return matchService.updateScore(id, score(payload.get("homeScore")), score(payload.get("awayScore")),
+                (String) payload.get("status"));
+    }
+
+    private static Integer score(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Integer) || (Integer) value < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Scores must be whole numbers >= 0");
+        }
+        return (Integer) value;
+    }
+
+    @GetMapping("/events/{eventId}/matches")
+    public List<Match> getMatches(@PathVariable Long eventId) {
+        return matchService.getMatches(eventId);
+    }
+
+    /**
+     * GET /api/events/{eventId}/leaderboard?top=10 -> Best teams first, counting live and finished matches
+     */
+    @GetMapping("/events/{eventId}/leaderboard")
+    public List<TeamStanding> getLeaderboard(@PathVariable Long eventId, @RequestParam(defaultValue = "10") int top) {
+        return leaderboardService.top(eventId, Math.max(1, Math.min(top, 500)));
+    }
+
+    /**
+     * GET /api/events/{eventId}/leaderboard/{teamId} -> One team's standing and rank
+     */
+    @GetMapping("/events/{eventId}/leaderboard/{teamId}")
+    public TeamStanding getStanding(@PathVariable Long eventId, @PathVariable Long teamId) {
+        return leaderboardService.standing(eventId, teamId);
+    }
+}
@@ -1,11 +1,25 @@
 package com.rural.sports.controllers;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Material;
+import com.rural.sports.models.MaterialAuditEntry;
+import com.rural.sports.models.MaterialSearchResult;
+import com.rural.sports.services.MaterialFacetIndex;
+import com.rural.sports.services.MaterialImportService;
 import com.rural.sports.services.MaterialService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +31,9 @@ public class MaterialController {
     @Autowired
     private MaterialService materialService; // This service will be created in a next step
 
+    @Autowired
+    private MaterialImportService materialImportService;
+
     /**
      * GET /api/materials -> Corresponds to ApiService.getMaterials
      */
@@ -25,6 +42,34 @@ public class MaterialController {
         return materialService.getAllMaterials();
     }
     
+    /**
+     * GET /api/materials/search?type=BALL,RACKET&status=IN_STOCK&minCondition=3&village=V1&page=0&size=20
+     * -> One page of matching materials plus counts per type, status, conditionLevel and donor village
+     */
+    @GetMapping("/search")
+    public MaterialSearchResult searchMaterials(@RequestParam(required = false) List<String> type,
+                                                @RequestParam(required = false) List<String> status,
+                                                @RequestParam(required = false) List<String> conditionLevel,
+                                                @RequestParam(required = false) List<String> village,
+                                                @RequestParam(required = false) Integer minCondition,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        Map<String, Collection<String>> filters = new HashMap<>();
+        filters.put(MaterialFacetIndex.TYPE, type);
+        filters.put(MaterialFacetIndex.STATUS, status);
+        filters.put(MaterialFacetIndex.CONDITION, conditionLevel);
+        filters.put(MaterialFacetIndex.VILLAGE, village);
+        return materialService.searchMaterials(filters, minCondition, Math.max(0, page), Math.max(1, Math.min(size, 200)));
+    }
+
+    /**
+     * GET /api/materials/changes?since=<token> -> Rows created, updated or deleted after the token
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Material> getChanges(@RequestParam(required = false) String since, @RequestParam(defaultValue = "500") int limit) {
+        return materialService.getChanges(since, Math.max(1, Math.min(limit, 5000)));
+    }
+
     /**
      * POST /api/materials/donate -> Corresponds to ApiService.donateMaterial
      * The frontend sends { name, type, conditionLevel, donorId }
@@ -34,6 +79,22 @@ public class MaterialController {
         return materialService.createDonation(payload);
     }
 
+    /**
+     * POST /api/materials/import -> Bulk import after a donation drive
+     * The body is CSV (header: name,type,conditionLevel,donorId) or NDJSON with the same fields.
+     * The response is NDJSON: one line per rejected row, a progress line per committed chunk and a final summary.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importMaterials(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = request.getContentType().startsWith("application/x-ndjson");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+             Writer report = response.getWriter()) {
+            materialImportService.importMaterials(reader, ndjson, report);
+        }
+    }
+
     /**
      * POST /api/materials/{materialId}/borrow -> Corresponds to ApiService.borrowMaterial
      * The frontend sends { userId, duration }
@@ -66,6 +127,14 @@ public class MaterialController {
         return ResponseEntity.ok(Map.of("success", success));
     }
 
+    /**
+     * GET /api/materials/{id}/history -> Every recorded transition of one material, oldest first
+     */
+    @GetMapping("/{id}/history")
+    public List<MaterialAuditEntry> getMaterialHistory(@PathVariable Long id) {
+        return materialService.getMaterialHistory(id);
+    }
+
     /**
      * DELETE /api/materials/{id} -> Corresponds to ApiService.deleteMaterial
      */
@@ -0,0 +1,23 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.services.StatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/statistics")
+public class StatisticsController {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    /**
+     * GET /api/statistics -> Counts for the county dashboard, read from in-memory counters
+     */
+    @GetMapping
+    public Map<String, Object> getStatistics() {
+        return statisticsService.snapshot();
+    }
+}
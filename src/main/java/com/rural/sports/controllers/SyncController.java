@@ -0,0 +1,36 @@
+package com.rural.sports.controllers;
+
+import com.rural.sports.models.BatchAction;
+import com.rural.sports.models.BatchActionResult;
+import com.rural.sports.models.User;
+import com.rural.sports.services.BatchActionService;
+import com.rural.sports.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private BatchActionService batchActionService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * POST /api/sync/batch -> Applies actions recorded offline in one transaction
+     * The frontend sends { actions: [ { type, materialId, eventId, userId, healthCondition, interaction } ] }
+     * and gets one result per action, in the same order. Actions for a user other than the signed-in
+     * one are rejected.
+     */
+    @PostMapping("/batch")
+    public Map<String, List<BatchActionResult>> submitBatch(@RequestBody Map<String, List<BatchAction>> payload) {
+        User user = userService.findByUsername(SecurityContextHolder.getContext().getAuthentication().getName());
+        return Map.of("results", batchActionService.apply(payload.get("actions"), user == null ? null : user.getId()));
+    }
+}
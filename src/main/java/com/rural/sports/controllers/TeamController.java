@@ -1,8 +1,12 @@
 package com.rural.sports.controllers;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Team;
+import com.rural.sports.services.ResponseCache;
 import com.rural.sports.services.TeamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,14 +18,29 @@ public class TeamController {
     @Autowired
     private TeamService teamService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping
     public List<Team> getAllTeams() {
         return teamService.getAllTeams();
     }
 
+    /**
+     * GET /api/teams/changes?since=<token> -> Rows created, updated or deleted after the token
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Team> getChanges(@RequestParam(required = false) String since, @RequestParam(defaultValue = "500") int limit) {
+        return teamService.getChanges(since, Math.max(1, Math.min(limit, 5000)));
+    }
+
+    /**
+     * GET /api/teams/{id} -> Team detail; concurrent requests share one load and one serialized body
+     */
     @GetMapping("/{id}")
-    public Team getTeamById(@PathVariable Long id) {
-        return teamService.getTeamById(id);
+    public ResponseEntity<byte[]> getTeamById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return responseCache.get("team:" + id, accept, () -> teamService.getTeamById(id));
     }
 
     @PostMapping
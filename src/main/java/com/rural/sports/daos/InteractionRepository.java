@@ -3,9 +3,16 @@ package com.rural.sports.daos;
 import com.rural.sports.models.Interaction;
 import com.rural.sports.models.InteractionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface InteractionRepository extends JpaRepository<Interaction, Long> {
     List<Interaction> findByTypeIn(List<InteractionType> types);
+    List<Interaction> findByTypeAndCreateTimeAfterOrderByCreateTimeDesc(InteractionType type, LocalDateTime after);
+
+    // Native so tombstones (deleted = true) are included despite the entity's @Where filter.
+    @Query(value = "SELECT * FROM interaction WHERE update_seq > ?1 AND update_seq <= ?2 ORDER BY update_seq LIMIT ?3", nativeQuery = true)
+    List<Interaction> findChanges(long since, long upTo, int limit);
 }
@@ -0,0 +1,20 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+
+/**
+ * One action recorded offline and submitted through /api/sync/batch.
+ * Which fields are used depends on the type:
+ * BORROW (materialId, userId), RETURN (materialId), REGISTER (eventId, userId, healthCondition),
+ * POST (interaction).
+ */
+@Data
+public class BatchAction {
+
+    private String type; // BORROW, RETURN, REGISTER, POST
+    private Long materialId;
+    private Long eventId;
+    private Long userId;
+    private String healthCondition;
+    private Interaction interaction;
+}
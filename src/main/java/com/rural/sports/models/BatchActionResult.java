@@ -0,0 +1,17 @@
+package com.rural.sports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchActionResult {
+
+    private int index;
+    private String type;
+    private boolean success;
+    private Long id; // id of the material, event registration target or created post
+    private String conflict; // why the action was not applied, null on success
+}
@@ -0,0 +1,21 @@
+package com.rural.sports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a /changes response. Rows with deleted=true are tombstones. Pass token back as
+ * "since" on the next call; keep calling while hasMore is true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSet<T> {
+
+    private String token;
+    private List<T> changes;
+    private boolean hasMore;
+}
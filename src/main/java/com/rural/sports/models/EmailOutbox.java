@@ -0,0 +1,29 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.util.Date;
+
+@Data
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String recipient;
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    private String status; // PENDING, SENDING, SENT, FAILED
+    private Integer attempts;
+    private Date nextAttemptAt;
+    private Date createdAt;
+    private Date sentAt;
+    private String lastError;
+    private String claimedBy; // token of the dispatch poll that is sending it
+}
@@ -1,13 +1,18 @@
 package com.rural.sports.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rural.sports.services.UpdateSequenceListener;
 import lombok.Data;
+import org.hibernate.annotations.Where;
 import javax.persistence.*;
 import java.util.Date;
 
 @Data
 @Entity
 @Table(name = "events")
-public class Event {
+@Where(clause = "deleted = false")
+@EntityListeners(UpdateSequenceListener.class)
+public class Event implements SyncTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,4 +30,11 @@ public class Event {
     @ManyToOne
     @JoinColumn(name = "organizer_id")
     private User organizer;
+
+    // Delta sync: bumped on every change; deleted rows are kept as tombstones.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long updateSeq;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean deleted;
 }
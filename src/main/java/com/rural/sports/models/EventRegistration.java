@@ -0,0 +1,32 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
+import javax.persistence.*;
+import java.util.Date;
+
+@Data
+@Entity
+@Table(name = "event_registrations",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "user_id"}))
+public class EventRegistration {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Events are soft-deleted and hidden by their @Where filter; a row still pointing at one
+    // (e.g. a tombstone served by /changes) loads with a null event instead of failing.
+    @ManyToOne
+    @NotFound(action = NotFoundAction.IGNORE)
+    @JoinColumn(name = "event_id")
+    private Event event;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    private String healthCondition;
+    private Date registeredAt;
+}
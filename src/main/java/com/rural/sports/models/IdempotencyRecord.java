@@ -0,0 +1,24 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.util.Date;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // Scoped key: "<username>|<method> <path>|<Idempotency-Key header>"
+    @Id
+    @Column(name = "record_key", length = 700)
+    private String key;
+
+    private Integer statusCode;
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    private Date createdAt;
+}
@@ -1,13 +1,19 @@
 package com.rural.sports.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rural.sports.services.UpdateSequenceListener;
+import org.hibernate.annotations.Where;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-public class Interaction {
+@Where(clause = "deleted = false")
+@EntityListeners(UpdateSequenceListener.class)
+public class Interaction implements SyncTracked {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Assigned by IdBlockAllocator, so write-behind posts and direct inserts share one id space.
     private Long id;
 
     private Long userId;
@@ -26,6 +32,22 @@ public class Interaction {
 
     private LocalDateTime createTime;
 
+    // Delta sync: bumped on every change; deleted rows are kept as tombstones.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long updateSeq;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean deleted;
+
+    // Maintained by EngagementCounters with batched increments; never written through the entity.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(insertable = false, updatable = false)
+    private long viewCount;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(insertable = false, updatable = false)
+    private long likeCount;
+
     public Interaction() {
         this.createTime = LocalDateTime.now();
     }
@@ -103,5 +125,36 @@ public class Interaction {
     public void setCreateTime(LocalDateTime createTime) {
         this.createTime = createTime;
     }
-}
 
+    public Long getUpdateSeq() {
+        return updateSeq;
+    }
+
+    public void setUpdateSeq(Long updateSeq) {
+        this.updateSeq = updateSeq;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(long viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+}
@@ -0,0 +1,27 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.util.Date;
+
+@Data
+@Entity
+@Table(name = "matches")
+public class Match {
+
+    public static final String SCHEDULED = "SCHEDULED";
+    public static final String LIVE = "LIVE";
+    public static final String FINISHED = "FINISHED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long eventId;
+    private Long homeTeamId;
+    private Long awayTeamId;
+    private Integer homeScore;
+    private Integer awayScore;
+    private String status; // SCHEDULED, LIVE, FINISHED
+    private Date playedAt;
+}
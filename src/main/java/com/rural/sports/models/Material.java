@@ -1,12 +1,17 @@
 package com.rural.sports.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rural.sports.services.UpdateSequenceListener;
 import lombok.Data;
+import org.hibernate.annotations.Where;
 import javax.persistence.*;
 
 @Data
 @Entity
 @Table(name = "materials")
-public class Material {
+@Where(clause = "deleted = false")
+@EntityListeners(UpdateSequenceListener.class)
+public class Material implements SyncTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,4 +29,11 @@ public class Material {
     @ManyToOne
     @JoinColumn(name = "current_holder_id")
     private User currentHolder;
+
+    // Delta sync: bumped on every change; deleted rows are kept as tombstones.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long updateSeq;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean deleted;
 }
@@ -0,0 +1,23 @@
+package com.rural.sports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One material state transition read back from the audit log.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialAuditEntry {
+
+    private String action; // DONATE, APPROVE, BORROW, RETURN, STATUS_CHANGE, DELETE
+    private Date time;
+    private Long materialId;
+    private Long userId; // donor, borrower or returning holder, depending on the action
+    private String fromStatus;
+    private String toStatus;
+}
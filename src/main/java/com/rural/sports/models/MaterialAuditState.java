@@ -0,0 +1,18 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * Material state rebuilt by replaying the audit log.
+ */
+@Data
+public class MaterialAuditState {
+
+    private Long materialId;
+    private String status;
+    private Long donorId;
+    private Long holderId;
+    private Date lastChange;
+}
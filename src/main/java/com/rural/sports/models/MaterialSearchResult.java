@@ -0,0 +1,23 @@
+package com.rural.sports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted material search. Facet counts cover every match, not just this page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialSearchResult {
+
+    private int total;
+    private int page;
+    private int size;
+    private List<MaterialSummary> items;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,23 @@
+package com.rural.sports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The fields of a material kept in the in-memory facet index and returned by /api/materials/search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialSummary {
+
+    private Long id;
+    private String name;
+    private String type;
+    private String status;
+    private Integer conditionLevel;
+    private Long donorId;
+    private String donorVillage;
+    private Long currentHolderId;
+}
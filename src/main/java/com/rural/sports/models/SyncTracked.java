@@ -0,0 +1,12 @@
+package com.rural.sports.models;
+
+/**
+ * Entities that offline clients sync through the /changes endpoints. Every insert, update
+ * and (soft) delete stamps the row with the next value of the change sequence.
+ */
+public interface SyncTracked {
+
+    Long getUpdateSeq();
+
+    void setUpdateSeq(Long updateSeq);
+}
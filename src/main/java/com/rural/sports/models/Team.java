@@ -1,13 +1,20 @@
 package com.rural.sports.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rural.sports.services.UpdateSequenceListener;
 import lombok.Data;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
+import org.hibernate.annotations.Where;
 import javax.persistence.*;
 import java.util.List;
 
 @Data
 @Entity
 @Table(name = "teams")
-public class Team {
+@Where(clause = "deleted = false")
+@EntityListeners(UpdateSequenceListener.class)
+public class Team implements SyncTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,7 +22,10 @@ public class Team {
 
     private String name;
 
+    // Events are soft-deleted and hidden by their @Where filter; a row still pointing at one
+    // (e.g. a tombstone served by /changes) loads with a null event instead of failing.
     @ManyToOne
+    @NotFound(action = NotFoundAction.IGNORE)
     @JoinColumn(name = "event_id")
     private Event event;
 
@@ -26,4 +36,11 @@ public class Team {
         inverseJoinColumns = @JoinColumn(name = "user_id")
     )
     private List<User> members;
+
+    // Delta sync: bumped on every change; deleted rows are kept as tombstones.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long updateSeq;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean deleted;
 }
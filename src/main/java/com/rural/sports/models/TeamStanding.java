@@ -0,0 +1,45 @@
+package com.rural.sports.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of an event leaderboard. Live and finished matches both count, so the table moves during play.
+ */
+@Data
+@NoArgsConstructor
+public class TeamStanding {
+
+    private int rank;
+    private Long teamId;
+    private String teamName;
+    private int played;
+    private int won;
+    private int drawn;
+    private int lost;
+    private int goalsFor;
+    private int goalsAgainst;
+    private int points;
+
+    public TeamStanding(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    public int getGoalDifference() {
+        return goalsFor - goalsAgainst;
+    }
+
+    public TeamStanding copy(int rank) {
+        TeamStanding copy = new TeamStanding(teamId, teamName);
+        copy.rank = rank;
+        copy.played = played;
+        copy.won = won;
+        copy.drawn = drawn;
+        copy.lost = lost;
+        copy.goalsFor = goalsFor;
+        copy.goalsAgainst = goalsAgainst;
+        copy.points = points;
+        return copy;
+    }
+}
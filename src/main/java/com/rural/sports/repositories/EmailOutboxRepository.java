@@ -0,0 +1,13 @@
+package com.rural.sports.repositories;
+
+import com.rural.sports.models.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    List<EmailOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(Collection<String> statuses, Date now, Pageable pageable);
+}
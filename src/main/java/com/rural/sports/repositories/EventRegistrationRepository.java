@@ -0,0 +1,17 @@
+package com.rural.sports.repositories;
+
+import com.rural.sports.models.EventRegistration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface EventRegistrationRepository extends JpaRepository<EventRegistration, Long> {
+    // Explicit queries compare the foreign key column; the derived ones left-join the parent
+    // table and filter on its id, which keeps the database from using the registration indexes.
+    @Query("SELECT r FROM EventRegistration r WHERE r.event.id = ?1")
+    List<EventRegistration> findByEventId(Long eventId);
+    boolean existsByEventIdAndUserId(Long eventId, Long userId);
+    @Query("SELECT r FROM EventRegistration r WHERE r.user.id = ?1")
+    List<EventRegistration> findByUserId(Long userId);
+}
@@ -2,6 +2,12 @@ package com.rural.sports.repositories;
 
 import com.rural.sports.models.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
+    // Native so tombstones (deleted = true) are included despite the entity's @Where filter.
+    @Query(value = "SELECT * FROM events WHERE update_seq > ?1 AND update_seq <= ?2 ORDER BY update_seq LIMIT ?3", nativeQuery = true)
+    List<Event> findChanges(long since, long upTo, int limit);
 }
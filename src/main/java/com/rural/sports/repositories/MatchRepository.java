@@ -0,0 +1,10 @@
+package com.rural.sports.repositories;
+
+import com.rural.sports.models.Match;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MatchRepository extends JpaRepository<Match, Long> {
+    List<Match> findByEventIdOrderByIdAsc(Long eventId);
+}
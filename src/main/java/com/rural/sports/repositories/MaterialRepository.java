@@ -2,6 +2,16 @@ package com.rural.sports.repositories;
 
 import com.rural.sports.models.Material;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface MaterialRepository extends JpaRepository<Material, Long> {
+    // Compares the foreign key column; the derived query joins users and misses idx_materials_current_holder.
+    @Query("SELECT m FROM Material m WHERE m.currentHolder.id = ?1")
+    List<Material> findByCurrentHolderId(Long userId);
+
+    // Native so tombstones (deleted = true) are included despite the entity's @Where filter.
+    @Query(value = "SELECT * FROM materials WHERE update_seq > ?1 AND update_seq <= ?2 ORDER BY update_seq LIMIT ?3", nativeQuery = true)
+    List<Material> findChanges(long since, long upTo, int limit);
 }
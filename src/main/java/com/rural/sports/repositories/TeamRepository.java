@@ -2,6 +2,24 @@ package com.rural.sports.repositories;
 
 import com.rural.sports.models.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
+    // Fetches members in the same query so the result can be serialized outside a session.
+    @Query("SELECT DISTINCT t FROM Team t LEFT JOIN FETCH t.members "
+            + "WHERE t.id IN (SELECT t2.id FROM Team t2 JOIN t2.members m WHERE m.id = ?1)")
+    List<Team> findByMemberWithMembers(Long userId);
+
+    @Query("SELECT t FROM Team t LEFT JOIN FETCH t.members WHERE t.id = ?1")
+    Optional<Team> findWithMembersById(Long id);
+
+    @Query("SELECT t FROM Team t WHERE t.event.id = ?1")
+    List<Team> findByEventId(Long eventId);
+
+    // Native so tombstones (deleted = true) are included despite the entity's @Where filter.
+    @Query(value = "SELECT * FROM teams WHERE update_seq > ?1 AND update_seq <= ?2 ORDER BY update_seq LIMIT ?3", nativeQuery = true)
+    List<Team> findChanges(long since, long upTo, int limit);
 }
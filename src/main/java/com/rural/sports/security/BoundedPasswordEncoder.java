@@ -0,0 +1,193 @@
+package com.rural.sports.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that hashes on a small dedicated pool instead of the request thread.
+ * <p>
+ * A login burst can then use at most password-hashing.threads cores; the other endpoints keep
+ * the rest. Work beyond the pool waits in a queue of password-hashing.queue-capacity; when the
+ * queue is full, or the work has waited password-hashing.max-wait-ms, the caller gets a
+ * {@link PasswordHashingBusyException} (503) right away. With no threads hashing runs inline.
+ * <p>
+ * {@link #upgradeEncoding} reports hashes whose cost is below the configured one, so a successful
+ * login rehashes the password (see UserService.updatePassword). Stronger hashes are kept. It only
+ * does so while the pool has spare capacity, so a rehash never makes a login fail during a burst.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private static final int CALIBRATION_COST = 8;
+
+    private final BCryptPasswordEncoder bcrypt;
+
+    private final int strength;
+
+    private final long maxWaitMs;
+
+    // Null when hashing runs on the caller's thread.
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long maxWaitMs) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxWaitMs = maxWaitMs;
+        if (threads > 0) {
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                Thread t = new Thread(r, "password-hashing-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        } else {
+            this.executor = null;
+        }
+        log.info("Password hashing: bcrypt cost {}, {} threads, queue {}", strength, threads, queueCapacity);
+    }
+
+    /**
+     * Highest bcrypt cost whose hash takes at most targetMs on this host, within [min, max].
+     * Each cost step doubles the work, so one measurement at a low cost is enough.
+     */
+    public static int calibrate(long targetMs, int min, int max) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_COST);
+        probe.encode("warm-up");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double ms = best / 1e6;
+        int cost = CALIBRATION_COST;
+        while (cost < max && ms * 2 <= targetMs) {
+            ms *= 2;
+            cost++;
+        }
+        int chosen = Math.max(min, Math.min(max, cost));
+        log.info("Calibrated bcrypt cost {} for a {} ms target (cost {} took {} ms)",
+                chosen, targetMs, CALIBRATION_COST, String.format("%.1f", best / 1e6));
+        return chosen;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find() || Integer.parseInt(matcher.group(1)) >= strength) {
+            return false;
+        }
+        boolean spare = executor == null
+                || (executor.getQueue().isEmpty() && executor.getActiveCount() < executor.getMaximumPoolSize());
+        if (spare) {
+            rehashed.increment();
+        }
+        return spare;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("strength", strength);
+        metrics.put("threads", executor == null ? 0 : executor.getMaximumPoolSize());
+        metrics.put("maxQueue", executor == null ? 0 : executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        metrics.put("maxWaitMs", maxWaitMs);
+        metrics.put("active", executor == null ? 0 : executor.getActiveCount());
+        metrics.put("waiting", executor == null ? 0 : executor.getQueue().size());
+        metrics.put("completed", completed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("rehashed", rehashed.sum());
+        return metrics;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> T run(Callable<T> work) {
+        if (executor == null) {
+            return call(work);
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(() -> call(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing queue is full");
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the work if it has not started yet; a running hash finishes and is discarded.
+            future.cancel(false);
+            timedOut.increment();
+            throw new PasswordHashingBusyException("Password hashing took longer than " + maxWaitMs + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> T call(Callable<T> work) {
+        try {
+            T result = work.call();
+            completed.increment();
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,9 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rural.sports.models.User;
 import com.rural.sports.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,8 +18,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.web.cors.CorsConfiguration;
@@ -28,7 +30,9 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntSupplier;
 
 @Configuration
 @EnableWebSecurity
@@ -37,6 +41,31 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 0 uses the cost stored in app_settings, calibrated to password-hashing.target-ms on first start.
+    @Value("${password-hashing.strength:0}")
+    private int hashingStrength;
+
+    @Value("${password-hashing.target-ms:100}")
+    private long hashingTargetMs;
+
+    @Value("${password-hashing.min-strength:10}")
+    private int hashingMinStrength;
+
+    @Value("${password-hashing.max-strength:14}")
+    private int hashingMaxStrength;
+
+    @Value("${password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${password-hashing.max-wait-ms:2000}")
+    private long hashingMaxWaitMs;
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth.userDetailsService(userService).passwordEncoder(passwordEncoder());
@@ -78,9 +107,37 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         return super.authenticationManagerBean();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * Hashes on a bounded pool; password-hashing.threads=0 means half the cores (at least one), -1 inline.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @DependsOn("flywayInitializer")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = hashingStrength > 0 ? hashingStrength
+                : Math.max(hashingMinStrength, Math.min(hashingMaxStrength, storedCost(jdbcTemplate,
+                        () -> BoundedPasswordEncoder.calibrate(hashingTargetMs, hashingMinStrength, hashingMaxStrength))));
+        int threads = hashingThreads == 0 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : Math.max(0, hashingThreads);
+        return new BoundedPasswordEncoder(strength, threads, hashingQueueCapacity, hashingMaxWaitMs);
+    }
+
+    /**
+     * The bcrypt cost in app_settings; on the first start it is calibrated and stored, so every
+     * node and every later start hashes with the same cost. Delete the row to recalibrate.
+     */
+    static int storedCost(JdbcTemplate jdbcTemplate, IntSupplier calibrate) {
+        String sql = "SELECT setting_value FROM app_settings WHERE name = 'bcrypt-cost'";
+        List<String> stored = jdbcTemplate.queryForList(sql, String.class);
+        if (!stored.isEmpty()) {
+            return Integer.parseInt(stored.get(0));
+        }
+        int cost = calibrate.getAsInt();
+        try {
+            jdbcTemplate.update("INSERT INTO app_settings (name, setting_value) VALUES ('bcrypt-cost', ?)", Integer.toString(cost));
+            return cost;
+        } catch (DuplicateKeyException e) {
+            // Another node calibrated at the same time; use its cost.
+            return Integer.parseInt(jdbcTemplate.queryForObject(sql, String.class));
+        }
     }
 
     @Bean
@@ -110,7 +167,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         @Override
         public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException, ServletException {
-            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            if (exception instanceof PasswordHashingBusyException) {
+                response.setHeader("Retry-After", "1");
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            } else {
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            }
             response.setContentType("application/json");
             Map<String, String> error = new HashMap<>();
             error.put("message", "Authentication failed");
@@ -0,0 +1,214 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.BatchAction;
+import com.rural.sports.models.BatchActionResult;
+import com.rural.sports.models.Event;
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.Material;
+import com.rural.sports.models.User;
+import com.rural.sports.repositories.EventRepository;
+import com.rural.sports.repositories.MaterialRepository;
+import com.rural.sports.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Applies a batch of actions recorded offline, in order, in one transaction.
+ * <p>
+ * All referenced materials, users and events are loaded up front with one query per table, so
+ * the per-action service calls find them in the persistence context instead of querying again,
+ * and the resulting updates are flushed together at commit (hibernate.jdbc.batch_size).
+ * An action that no longer applies (e.g. the material was borrowed by someone else meanwhile)
+ * is reported as a conflict and skipped; the rest of the batch still commits. So is an action
+ * made on behalf of a user other than the one submitting the batch, and a post whose fields do
+ * not fit the interaction table.
+ * <p>
+ * If the database rejects the batch anyway (a constraint, a deadlock), nothing of it is kept and
+ * the actions are applied again one transaction each, so that only the failing action is
+ * reported as a conflict.
+ */
+@Service
+public class BatchActionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchActionService.class);
+
+    private static final String NOT_YOURS = "Action belongs to another user";
+
+    // event_registrations.health_condition is VARCHAR(255).
+    private static final int MAX_HEALTH_CONDITION = 255;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private MaterialService materialService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${sync.batch.max-actions:500}")
+    private int maxActions;
+
+    public List<BatchActionResult> apply(List<BatchAction> actions, Long principalId) {
+        if (actions == null || actions.isEmpty()) {
+            return List.of();
+        }
+        if (actions.size() > maxActions) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxActions + " actions per batch");
+        }
+        try {
+            return transactionTemplate.execute(tx -> applyAll(actions, 0, principalId));
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} actions failed, applying them one by one", actions.size(), e);
+        }
+
+        List<BatchActionResult> results = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            int index = i;
+            List<BatchAction> one = List.of(actions.get(i));
+            try {
+                results.addAll(transactionTemplate.execute(tx -> applyAll(one, index, principalId)));
+            } catch (DataAccessException e) {
+                log.warn("Batch action {} failed", index, e);
+                String type = one.get(0).getType() == null ? "" : one.get(0).getType();
+                results.add(result(index, type, null, "Could not be stored"));
+            }
+        }
+        return results;
+    }
+
+    private List<BatchActionResult> applyAll(List<BatchAction> actions, int firstIndex, Long principalId) {
+        Set<Long> materialIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> eventIds = new HashSet<>();
+        addIfPresent(userIds, principalId);
+        for (BatchAction action : actions) {
+            addIfPresent(materialIds, action.getMaterialId());
+            addIfPresent(userIds, action.getUserId());
+            addIfPresent(eventIds, action.getEventId());
+        }
+        Map<Long, Material> materials = byId(materialRepository.findAllById(materialIds), Material::getId);
+        Map<Long, User> users = byId(userRepository.findAllById(userIds), User::getId);
+        Map<Long, Event> events = byId(eventRepository.findAllById(eventIds), Event::getId);
+
+        List<BatchActionResult> results = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            results.add(applyOne(firstIndex + i, actions.get(i), principalId, materials, users, events));
+        }
+        return results;
+    }
+
+    private BatchActionResult applyOne(int index, BatchAction action, Long principalId, Map<Long, Material> materials,
+                                       Map<Long, User> users, Map<Long, Event> events) {
+        String type = action.getType() == null ? "" : action.getType();
+        switch (type) {
+            case "BORROW": {
+                Material material = materials.get(action.getMaterialId());
+                String conflict = material == null ? "Material not found"
+                        : users.get(action.getUserId()) == null ? "User not found"
+                        : !action.getUserId().equals(principalId) ? NOT_YOURS
+                        : !"IN_STOCK".equals(material.getStatus()) ? "Material is " + material.getStatus()
+                        : null;
+                if (conflict == null) {
+                    materialService.borrowMaterial(action.getMaterialId(), action.getUserId());
+                }
+                return result(index, type, action.getMaterialId(), conflict);
+            }
+            case "RETURN": {
+                Material material = materials.get(action.getMaterialId());
+                String conflict = material == null ? "Material not found"
+                        : !"BORROWED".equals(material.getStatus()) ? "Material is " + material.getStatus()
+                        : !isHolderOrAdmin(material, users.get(principalId)) ? "Material is held by another user"
+                        : null;
+                if (conflict == null) {
+                    materialService.returnMaterial(action.getMaterialId());
+                }
+                return result(index, type, action.getMaterialId(), conflict);
+            }
+            case "REGISTER": {
+                String conflict = events.get(action.getEventId()) == null ? "Event not found"
+                        : users.get(action.getUserId()) == null ? "User not found"
+                        : !action.getUserId().equals(principalId) ? NOT_YOURS
+                        : action.getHealthCondition() != null && action.getHealthCondition().length() > MAX_HEALTH_CONDITION
+                        ? "healthCondition is longer than " + MAX_HEALTH_CONDITION + " characters"
+                        : null;
+                if (conflict == null) {
+                    eventService.registerForEvent(action.getEventId(), action.getUserId(), action.getHealthCondition());
+                }
+                return result(index, type, action.getEventId(), conflict);
+            }
+            case "POST": {
+                Interaction interaction = action.getInteraction();
+                if (interaction == null) {
+                    return result(index, type, null, "Missing interaction");
+                }
+                if (principalId == null || !principalId.equals(interaction.getUserId())) {
+                    return result(index, type, null, NOT_YOURS);
+                }
+                String violation = InteractionConstraints.violation(interaction);
+                if (violation != null) {
+                    return result(index, type, null, violation);
+                }
+                interaction.setId(null);
+                // Not through write-behind: its queue would commit independently of this transaction.
+                Interaction saved = interactionService.addInteractionInTransaction(interaction);
+                return result(index, type, saved.getId(), null);
+            }
+            default:
+                return result(index, type, null, "Unknown action type");
+        }
+    }
+
+    private static boolean isHolderOrAdmin(Material material, User principal) {
+        if (principal == null) {
+            return false;
+        }
+        User holder = material.getCurrentHolder();
+        return "ADMIN".equals(principal.getRole()) || holder != null && principal.getId().equals(holder.getId());
+    }
+
+    private static BatchActionResult result(int index, String type, Long id, String conflict) {
+        return new BatchActionResult(index, type, conflict == null, id, conflict);
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> map = new HashMap<>();
+        for (T row : rows) {
+            map.put(idOf.apply(row), row);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.ChangeSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hands out the update_seq values behind delta sync and works out which of them are safe
+ * to return to clients.
+ * <p>
+ * A value taken by a transaction that has not committed yet must not be skipped by a client's
+ * token, so /changes only returns rows up to the watermark. The counter is the change_sequence
+ * row, shared by all nodes: the first value a transaction takes increments it and keeps the row
+ * locked until that transaction ends, so values commit in the order they were handed out and the
+ * committed seq_value is the watermark. Later values in the same transaction increment the locked
+ * row without reading it back.
+ * <p>
+ * The price is that transactions stamping sync-tracked rows run one at a time across all nodes,
+ * from their first stamp to their commit; keep them short.
+ */
+@Component
+public class ChangeSequence {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the next value; must be called inside the transaction that writes it.
+     */
+    public long next() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A change sequence value must be taken inside a transaction");
+        }
+        jdbcTemplate.update("UPDATE change_sequence SET seq_value = seq_value + 1 WHERE id = 1");
+        long[] last = (long[]) TransactionSynchronizationManager.getResource(this);
+        if (last != null) {
+            return ++last[0];
+        }
+        Long value = jdbcTemplate.queryForObject("SELECT seq_value FROM change_sequence WHERE id = 1", Long.class);
+        TransactionSynchronizationManager.bindResource(this, new long[]{value});
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+            }
+        });
+        return value;
+    }
+
+    /**
+     * Highest value below which every stamped row has committed or rolled back.
+     */
+    public long watermark() {
+        Long committed = jdbcTemplate.queryForObject("SELECT seq_value FROM change_sequence WHERE id = 1", Long.class);
+        return committed == null ? 0 : committed;
+    }
+
+    /**
+     * Runs one /changes query: rows with since < update_seq <= watermark, oldest first.
+     */
+    public <T> ChangeSet<T> changesSince(String token, int limit, ChangeQuery<T> query, ToLongFunction<T> seqOf) {
+        long since = parseToken(token);
+        long upTo = watermark();
+        List<T> rows = query.find(since, upTo, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+            upTo = seqOf.applyAsLong(rows.get(rows.size() - 1));
+        }
+        return new ChangeSet<>(Long.toString(Math.max(since, upTo)), rows, hasMore);
+    }
+
+    private static long parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChangeQuery<T> {
+        List<T> find(long since, long upTo, int limit);
+    }
+}
@@ -0,0 +1,232 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.EmailOutbox;
+import com.rural.sports.repositories.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends pending outbox emails in the background.
+ * <p>
+ * Each poll claims at most max-per-second * poll-interval rows, which caps the send rate,
+ * splits them into chunks and sends each chunk over one SMTP connection on a bounded pool.
+ * Failed messages are retried with exponential backoff until max-attempts is reached.
+ * <p>
+ * Several nodes may poll the same outbox. A row is claimed with a conditional UPDATE that moves
+ * it to SENDING, stamps this poll's token and pushes next_attempt_at out by lease-ms; a row only
+ * counts as claimed when that UPDATE changed it, so no two dispatchers send the same message.
+ * Results are written back only while the token still matches. Rows left in SENDING by a node
+ * that died become due again once their lease has run out.
+ * Does nothing unless notification.mail.enabled=true and spring.mail.host is configured.
+ */
+@Component
+@Lazy(false)
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<JavaMailSender> mailSenderProvider;
+
+    @Value("${notification.mail.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.mail.from:no-reply@village-sports.local}")
+    private String from;
+
+    @Value("${notification.mail.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${notification.mail.max-per-second:10}")
+    private int maxPerSecond;
+
+    @Value("${notification.mail.chunk-size:20}")
+    private int chunkSize;
+
+    @Value("${notification.mail.senders:2}")
+    private int senders;
+
+    @Value("${notification.mail.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notification.mail.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${notification.mail.lease-ms:300000}")
+    private long leaseMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(senders, senders, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(senders * 4),
+                r -> {
+                    Thread t = new Thread(r, "email-sender-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.mail.poll-interval-ms:5000}")
+    public void dispatch() {
+        JavaMailSender mailSender = mailSenderProvider.getIfAvailable();
+        if (!enabled || mailSender == null) {
+            return;
+        }
+        int limit = (int) Math.max(1, maxPerSecond * pollIntervalMs / 1000);
+        Date now = new Date();
+        List<EmailOutbox> due = claim(emailOutboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                List.of("PENDING", "SENDING"), now, PageRequest.of(0, limit)), now);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Future<?>> sends = new ArrayList<>();
+        for (int start = 0; start < due.size(); start += chunkSize) {
+            List<EmailOutbox> chunk = due.subList(start, Math.min(due.size(), start + chunkSize));
+            sends.add(executor.submit(() -> send(mailSender, chunk)));
+        }
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Email chunk failed", e);
+            }
+        }
+        release(due);
+    }
+
+    // One UPDATE per row so the row count says whether this poll won it; batched counts are not
+    // reliable with rewriteBatchedStatements.
+    private List<EmailOutbox> claim(List<EmailOutbox> candidates, Date now) {
+        String token = UUID.randomUUID().toString();
+        Date leaseEnd = new Date(now.getTime() + leaseMs);
+        List<EmailOutbox> claimed = new ArrayList<>();
+        for (EmailOutbox email : candidates) {
+            int updated = jdbcTemplate.update("UPDATE email_outbox SET status = 'SENDING', claimed_by = ?, next_attempt_at = ? "
+                    + "WHERE id = ? AND status IN ('PENDING', 'SENDING') AND next_attempt_at <= ?",
+                    token, leaseEnd, email.getId(), now);
+            if (updated == 1) {
+                email.setStatus("SENDING");
+                email.setClaimedBy(token);
+                email.setNextAttemptAt(leaseEnd);
+                claimed.add(email);
+            }
+        }
+        return claimed;
+    }
+
+    // Rows whose lease ran out and were claimed by another dispatcher keep that dispatcher's result.
+    private void release(List<EmailOutbox> sent) {
+        List<Object[]> args = new ArrayList<>();
+        for (EmailOutbox email : sent) {
+            if ("SENDING".equals(email.getStatus())) {
+                // The chunk failed before recording a result; try again once the lease is over.
+                email.setStatus("PENDING");
+            }
+            args.add(new Object[]{email.getStatus(), email.getAttempts(), email.getNextAttemptAt(),
+                    email.getSentAt(), email.getLastError(), email.getId(), email.getClaimedBy()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE email_outbox SET status = ?, attempts = ?, next_attempt_at = ?, sent_at = ?, "
+                + "last_error = ?, claimed_by = NULL WHERE id = ? AND claimed_by = ?", args);
+    }
+
+    private void send(JavaMailSender mailSender, List<EmailOutbox> chunk) {
+        Map<SimpleMailMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox email : chunk) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(from);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages.put(message, email);
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                // Connection-level failure: nothing in the chunk was sent.
+                Map<Object, Exception> all = new IdentityHashMap<>();
+                messages.keySet().forEach(m -> all.put(m, e));
+                failures = all;
+            }
+        } catch (RuntimeException e) {
+            Map<Object, Exception> all = new IdentityHashMap<>();
+            messages.keySet().forEach(m -> all.put(m, e));
+            failures = all;
+        }
+
+        Date now = new Date();
+        for (Map.Entry<SimpleMailMessage, EmailOutbox> entry : messages.entrySet()) {
+            EmailOutbox email = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                email.setStatus("SENT");
+                email.setSentAt(now);
+                email.setLastError(null);
+            } else {
+                retryLater(email, failure, now);
+            }
+        }
+    }
+
+    private void retryLater(EmailOutbox email, Exception failure, Date now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        String error = String.valueOf(failure.getMessage());
+        email.setLastError(error.length() > 255 ? error.substring(0, 255) : error);
+        if (attempts >= maxAttempts) {
+            email.setStatus("FAILED");
+            log.warn("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts);
+            return;
+        }
+        long backoff = backoffBaseMs << Math.min(attempts - 1, 10);
+        email.setStatus("PENDING");
+        email.setNextAttemptAt(new Date(now.getTime() + backoff));
+    }
+}
@@ -0,0 +1,205 @@
+package com.rural.sports.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * View and like counts of notices, counted in memory so a read never becomes a row write.
+ * <p>
+ * Each notice has LongAdder totals (served and sorted on) and LongAdder deltas not yet written.
+ * Every engagement.flush-interval-ms the deltas are drained into one batch of
+ * "count = count + ?" updates. The batch carries a random id that is inserted into
+ * counter_flushes in the same transaction; if the commit outcome is unclear the same batch is
+ * retried and skipped when its id is already there, so increments are never applied twice.
+ * Pending counts are flushed on shutdown; a crash loses at most one interval of counts.
+ * <p>
+ * After every flush interval the totals are re-read from the table and the counts this node has
+ * not written yet are added back, so counts flushed by other nodes show up within one interval
+ * and every node converges on the same totals.
+ * <p>
+ * A like is an anonymous tap, like a view: it is not tied to a user and the same person can like
+ * a notice more than once. like_count ranks notices by how often they were liked, not by how many
+ * people liked them.
+ */
+@Component
+@Lazy(false)
+public class EngagementCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementCounters.class);
+
+    private static final String UPDATE_SQL = "UPDATE interaction SET view_count = view_count + ?, like_count = like_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${engagement.flush-retention-hours:24}")
+    private long flushRetentionHours;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Drained but not yet known to be committed; retried with the same id until it is.
+    private PendingFlush pending;
+
+    public void recordView(Long id) {
+        Counter counter = counter(id);
+        counter.views.increment();
+        counter.viewDelta.increment();
+    }
+
+    public void recordLike(Long id) {
+        Counter counter = counter(id);
+        counter.likes.increment();
+        counter.likeDelta.increment();
+    }
+
+    public long views(Long id) {
+        Counter counter = counters.get(id);
+        return counter == null ? 0 : counter.views.sum();
+    }
+
+    public long likes(Long id) {
+        Counter counter = counters.get(id);
+        return counter == null ? 0 : counter.likes.sum();
+    }
+
+    /**
+     * Stops tracking a deleted notice; counts already recorded are still flushed.
+     */
+    public void forget(Long id) {
+        Counter counter = counters.get(id);
+        if (counter != null && counter.viewDelta.sum() == 0 && counter.likeDelta.sum() == 0) {
+            counters.remove(id, counter);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        flushLock.lock();
+        try {
+            refresh();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending == null) {
+                pending = drain();
+            }
+            if (pending != null) {
+                PendingFlush batch = pending;
+                transactionTemplate.executeWithoutResult(status -> apply(batch));
+                pending = null;
+            }
+            refresh();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Flushing engagement counters failed, retrying next interval: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.flush-purge-interval-ms:3600000}")
+    public void purgeFlushIds() {
+        jdbcTemplate.update("DELETE FROM counter_flushes WHERE applied_at < ?",
+                new Timestamp(System.currentTimeMillis() - flushRetentionHours * 3600_000));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private PendingFlush drain() {
+        Map<Long, long[]> deltas = new LinkedHashMap<>();
+        counters.forEach((id, counter) -> {
+            // Subtract what was read rather than reset, so increments racing with the drain are kept.
+            long views = counter.viewDelta.sum();
+            long likes = counter.likeDelta.sum();
+            if (views != 0 || likes != 0) {
+                counter.viewDelta.add(-views);
+                counter.likeDelta.add(-likes);
+                deltas.put(id, new long[]{views, likes});
+            }
+        });
+        return deltas.isEmpty() ? null : new PendingFlush(UUID.randomUUID().toString(), deltas);
+    }
+
+    private void apply(PendingFlush batch) {
+        Integer applied = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM counter_flushes WHERE flush_id = ?", Integer.class, batch.id);
+        if (applied != null && applied > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO counter_flushes (flush_id, applied_at) VALUES (?, ?)",
+                batch.id, new Timestamp(System.currentTimeMillis()));
+        List<Object[]> args = new ArrayList<>(batch.deltas.size());
+        batch.deltas.forEach((id, delta) -> args.add(new Object[]{delta[0], delta[1], id}));
+        jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+    }
+
+    // Totals become the stored counts plus what this node has not written yet. Called with
+    // flushLock held, so the pending batch cannot change meanwhile.
+    private void refresh() {
+        jdbcTemplate.query("SELECT id, view_count, like_count FROM interaction WHERE type = 'NOTICE' AND deleted = false", rs -> {
+            long id = rs.getLong(1);
+            Counter counter = counter(id);
+            long[] inFlight = pending == null ? null : pending.deltas.get(id);
+            long views = rs.getLong(2) + counter.viewDelta.sum() + (inFlight == null ? 0 : inFlight[0]);
+            long likes = rs.getLong(3) + counter.likeDelta.sum() + (inFlight == null ? 0 : inFlight[1]);
+            // Adjust rather than reset, so increments racing with the refresh are not dropped.
+            counter.views.add(views - counter.views.sum());
+            counter.likes.add(likes - counter.likes.sum());
+        });
+    }
+
+    private Counter counter(Long id) {
+        return counters.computeIfAbsent(id, k -> new Counter());
+    }
+
+    private static class Counter {
+        final LongAdder views = new LongAdder();
+        final LongAdder likes = new LongAdder();
+        final LongAdder viewDelta = new LongAdder();
+        final LongAdder likeDelta = new LongAdder();
+    }
+
+    private static class PendingFlush {
+        final String id;
+        final Map<Long, long[]> deltas;
+
+        PendingFlush(String id, Map<Long, long[]> deltas) {
+            this.id = id;
+            this.deltas = deltas;
+        }
+    }
+}
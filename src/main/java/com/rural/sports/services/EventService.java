@@ -1,13 +1,18 @@
 package com.rural.sports.services;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Event;
+import com.rural.sports.models.EventRegistration;
 import com.rural.sports.models.User;
+import com.rural.sports.repositories.EventRegistrationRepository;
 import com.rural.sports.repositories.EventRepository;
 import com.rural.sports.repositories.UserRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +25,27 @@ public class EventService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EventRegistrationRepository eventRegistrationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private TeamService teamService;
+
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
     }
@@ -29,19 +55,55 @@ public class EventService {
     }
 
     public Event createEvent(Event event) {
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        statisticsService.increment(StatisticsService.EVENTS_BY_STATUS, saved.getStatus());
+        invalidationBus.publish(InvalidationBus.EVENT, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public Event updateEvent(Long id, Event event) {
-        if (eventRepository.existsById(id)) {
+        Event existing = eventRepository.findById(id).orElse(null);
+        if (existing != null) {
+            String previousStatus = existing.getStatus();
             event.setId(id);
-            return eventRepository.save(event);
+            Event saved = eventRepository.save(event);
+            statisticsService.move(StatisticsService.EVENTS_BY_STATUS, previousStatus, saved.getStatus());
+            invalidateDetail(id);
+            notifyRegistrants(id, "Event updated: " + saved.getName(),
+                    "The event " + saved.getName() + " you registered for has changed. "
+                            + "Starts: " + saved.getStartTime() + ", location: " + saved.getLocation() + ".");
+            return saved;
         }
         return null;
     }
 
+    @Transactional
     public void deleteEvent(Long id) {
-        eventRepository.deleteById(id);
+        Event event = eventRepository.findById(id).orElse(null);
+        if (event != null) {
+            notifyRegistrants(id, "Event cancelled: " + event.getName(),
+                    "The event " + event.getName() + " you registered for has been cancelled.");
+            eventRegistrationRepository.deleteAll(eventRegistrationRepository.findByEventId(id));
+            // Teams would otherwise point at an event the @Where filter hides.
+            teamService.deleteTeamsOfEvent(id);
+            // Soft delete so offline clients receive a tombstone through /changes.
+            event.setDeleted(true);
+            eventRepository.save(event);
+            statisticsService.decrement(StatisticsService.EVENTS_BY_STATUS, event.getStatus());
+            invalidateDetail(id);
+        }
+    }
+
+    private void invalidateDetail(Long id) {
+        responseCache.invalidate("event:" + id);
+        // Team details embed their event.
+        responseCache.invalidatePrefix("team:");
+        invalidationBus.publish(InvalidationBus.EVENT, id);
+    }
+
+    public ChangeSet<Event> getChanges(String since, int limit) {
+        return changeSequence.changesSince(since, limit, eventRepository::findChanges, Event::getUpdateSeq);
     }
 
     public boolean registerForEvent(Long eventId, Long userId, String healthCondition) {
@@ -49,12 +111,15 @@ public class EventService {
         User user = userRepository.findById(userId).orElse(null);
 
         if (event != null && user != null) {
-            // Here you would typically add the user to the event's participants list.
-            // This depends on how the relationship is modeled in your Event and User entities.
-            // For example, if Event has a List<User> participants:
-            // event.getParticipants().add(user);
-            // eventRepository.save(event);
-            // For now, we'll just return true to confirm the logic is wired up.
+            // Registrations are kept so participants can be told when the event changes.
+            if (!eventRegistrationRepository.existsByEventIdAndUserId(eventId, userId)) {
+                EventRegistration registration = new EventRegistration();
+                registration.setEvent(event);
+                registration.setUser(user);
+                registration.setHealthCondition(healthCondition);
+                registration.setRegisteredAt(new Date());
+                eventRegistrationRepository.save(registration);
+            }
             return true;
         }
         return false;
@@ -71,4 +136,10 @@ public class EventService {
         // For now, let's just return up to 5 events as a mock recommendation.
         return eventRepository.findAll().stream().limit(5).collect(Collectors.toList());
     }
+
+    private void notifyRegistrants(Long eventId, String subject, String body) {
+        for (EventRegistration registration : eventRegistrationRepository.findByEventId(eventId)) {
+            notificationService.notify(registration.getUser(), subject, body);
+        }
+    }
 }
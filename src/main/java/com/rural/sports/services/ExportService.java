@@ -0,0 +1,173 @@
+package com.rural.sports.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * Streams report exports straight from the database to the response.
+ * <p>
+ * Rows are read through a forward-only cursor with a fixed fetch size (the MySQL URL sets
+ * useCursorFetch=true so the driver honours it) and written out one at a time. No entities are
+ * created, so there is no persistence context to grow and heap use does not depend on table size.
+ * Passwords are never exported.
+ */
+@Service
+public class ExportService {
+
+    public static final Map<String, String> QUERIES = Map.of(
+            "users", "SELECT id, username, role, status, village, sport_preference, contact_info, responsible_area "
+                    + "FROM users ORDER BY id",
+            "materials", "SELECT m.id, m.name, m.type, m.condition_level, m.status, m.donor_id, d.username AS donor, "
+                    + "m.current_holder_id, h.username AS current_holder FROM materials m "
+                    + "LEFT JOIN users d ON d.id = m.donor_id LEFT JOIN users h ON h.id = m.current_holder_id "
+                    + "WHERE m.deleted = false ORDER BY m.id",
+            "loans", "SELECT l.id, l.material_type, l.status, l.return_time, l.borrower_id, b.username AS borrower "
+                    + "FROM loans l LEFT JOIN users b ON b.id = l.borrower_id ORDER BY l.id");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+    }
+
+    public boolean supports(String table) {
+        return QUERIES.containsKey(table);
+    }
+
+    public void exportCsv(String table, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        stream(table, rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                writer.write(i > 1 ? "," : "");
+                writer.write(meta.getColumnLabel(i).toLowerCase());
+            }
+            writer.write('\n');
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    String value = rs.getString(i);
+                    if (value != null) {
+                        writeCsvField(writer, value);
+                    }
+                }
+                writer.write('\n');
+            }
+        });
+        writer.flush();
+    }
+
+    public void exportNdjson(String table, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        stream(table, rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            String[] names = new String[columns + 1];
+            for (int i = 1; i <= columns; i++) {
+                names[i] = meta.getColumnLabel(i).toLowerCase();
+            }
+            while (rs.next()) {
+                json.writeStartObject();
+                for (int i = 1; i <= columns; i++) {
+                    json.writeFieldName(names[i]);
+                    writeJsonValue(json, rs, i, meta.getColumnType(i));
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        });
+        json.flush();
+    }
+
+    private void stream(String table, CursorWriter cursorWriter) throws IOException {
+        try {
+            cursorTemplate.query(QUERIES.get(table), (ResultSetExtractor<Void>) rs -> {
+                try {
+                    cursorWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; surface it as the IOException it is.
+            throw e.getCause();
+        }
+    }
+
+    private static void writeJsonValue(JsonGenerator json, ResultSet rs, int column, int sqlType) throws SQLException, IOException {
+        switch (sqlType) {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT: {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    json.writeNull();
+                } else {
+                    json.writeNumber(value);
+                }
+                break;
+            }
+            default: {
+                String value = rs.getString(column);
+                if (value == null) {
+                    json.writeNull();
+                } else {
+                    json.writeString(value);
+                }
+            }
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface CursorWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
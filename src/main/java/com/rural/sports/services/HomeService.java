@@ -0,0 +1,154 @@
+package com.rural.sports.services;
+
+import com.rural.sports.daos.InteractionRepository;
+import com.rural.sports.models.EventRegistration;
+import com.rural.sports.models.InteractionType;
+import com.rural.sports.repositories.EventRegistrationRepository;
+import com.rural.sports.repositories.MaterialRepository;
+import com.rural.sports.repositories.TeamRepository;
+import com.rural.sports.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the "my home" screen in one call.
+ * <p>
+ * Each part is an independent query submitted to a bounded pool, so the response takes about as
+ * long as the slowest part rather than the sum of all of them. A part that fails, times out or is
+ * rejected because the pool is full is left out and listed under "unavailable"; the rest of the
+ * response is still returned.
+ */
+@Service
+public class HomeService {
+
+    private static final Logger log = LoggerFactory.getLogger(HomeService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private EventRegistrationRepository eventRegistrationRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Value("${home.threads:8}")
+    private int threads;
+
+    @Value("${home.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${home.part-timeout-ms:1500}")
+    private long partTimeoutMs;
+
+    @Value("${home.unread-notice-days:7}")
+    private int unreadNoticeDays;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "home-fanout-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param userId       the authenticated user
+     * @param noticesSince notices created after this time count as unread; defaults to the last
+     *                     home.unread-notice-days days when the client does not send its last visit
+     */
+    public Map<String, Object> getHome(Long userId, LocalDateTime noticesSince) {
+        LocalDateTime since = noticesSince != null ? noticesSince : LocalDateTime.now().minusDays(unreadNoticeDays);
+
+        Map<String, Callable<Object>> parts = new LinkedHashMap<>();
+        parts.put("profile", () -> userRepository.findById(userId).orElse(null));
+        parts.put("borrowedMaterials", () -> materialRepository.findByCurrentHolderId(userId));
+        parts.put("registrations", () -> registrations(userId));
+        parts.put("teams", () -> teamRepository.findByMemberWithMembers(userId));
+        parts.put("unreadNotices", () ->
+                interactionRepository.findByTypeAndCreateTimeAfterOrderByCreateTimeDesc(InteractionType.NOTICE, since));
+
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        for (Map.Entry<String, Callable<Object>> part : parts.entrySet()) {
+            try {
+                futures.put(part.getKey(), executor.submit(part.getValue()));
+            } catch (RejectedExecutionException e) {
+                unavailable.add(part.getKey());
+            }
+        }
+
+        // One deadline for the whole response: every part gets at most part-timeout-ms from the start.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+        Map<String, Object> home = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Object>> future : futures.entrySet()) {
+            try {
+                home.put(future.getKey(), future.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.getValue().cancel(true);
+                unavailable.add(future.getKey());
+            } catch (ExecutionException e) {
+                log.warn("Home part {} failed for user {}", future.getKey(), userId, e.getCause());
+                unavailable.add(future.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.getValue().cancel(true);
+                unavailable.add(future.getKey());
+            }
+        }
+        home.put("noticesSince", since);
+        home.put("unavailable", unavailable);
+        return home;
+    }
+
+    private List<Map<String, Object>> registrations(Long userId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (EventRegistration registration : eventRegistrationRepository.findByUserId(userId)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("event", registration.getEvent());
+            entry.put("healthCondition", registration.getHealthCondition());
+            entry.put("registeredAt", registration.getRegisteredAt());
+            result.add(entry);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.rural.sports.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigns ids from blocks reserved in the id_blocks table, for rows whose id must be known
+ * before they are inserted. Every writer of such a table, on every node, takes its ids here,
+ * so an id is never handed out twice. Ids of an unused block remainder are skipped after a restart.
+ */
+@Component
+public class IdBlockAllocator {
+
+    public static final String INTERACTION = "interaction";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${id-blocks.block-size:100}")
+    private int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Next free id and end (exclusive) of the current block, per name.
+    private final Map<String, long[]> blocks = new HashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        // The reservation commits on its own, even when the caller's transaction rolls back.
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long next(String name) {
+        lock.lock();
+        try {
+            long[] block = blocks.get(name);
+            if (block == null || block[0] >= block[1]) {
+                block = reserve(name);
+                blocks.put(name, block);
+            }
+            return block[0]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long[] reserve(String name) {
+        Long end = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("UPDATE id_blocks SET next_id = next_id + ? WHERE name = ?", blockSize, name) != 1) {
+                throw new IllegalStateException("No id block row for " + name);
+            }
+            return jdbcTemplate.queryForObject("SELECT next_id FROM id_blocks WHERE name = ?", Long.class, name);
+        });
+        return new long[]{end - blockSize, end};
+    }
+}
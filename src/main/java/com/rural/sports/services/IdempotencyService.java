@@ -0,0 +1,136 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.IdempotencyRecord;
+import com.rural.sports.repositories.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers the response of a mutating request per Idempotency-Key so a retried
+ * request can be answered with the stored response instead of being executed again.
+ * Recent keys live in a bounded LRU map; every key is also persisted so a replay
+ * still works after eviction or a restart.
+ */
+@Service
+@Lazy(false)
+public class IdempotencyService {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // Access-ordered LRU; guarded by recentLock rather than synchronized so virtual threads do not pin.
+    private final Map<String, IdempotencyRecord> recent;
+
+    private final ReentrantLock recentLock = new ReentrantLock();
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyService(@Value("${idempotency.cache-size:1000}") int cacheSize) {
+        this.recent = new LinkedHashMap<String, IdempotencyRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the stored response for the key, or null if the request has not completed before.
+     */
+    public IdempotencyRecord find(String key) {
+        IdempotencyRecord record = cached(key);
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(key).orElse(null);
+            if (record != null) {
+                cache(key, record);
+            }
+        }
+        if (record != null && isExpired(record)) {
+            evict(key);
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * Marks the key as being executed. Returns false if another request with the same key is still running.
+     */
+    public boolean begin(String key) {
+        return inFlight.add(key);
+    }
+
+    public void complete(String key, int statusCode, String contentType, byte[] body) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setKey(key);
+            record.setStatusCode(statusCode);
+            record.setContentType(contentType);
+            record.setBody(body);
+            record.setCreatedAt(new Date());
+            idempotencyRecordRepository.save(record);
+            cache(key, record);
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Releases the key without storing anything, e.g. when the request failed and may be retried.
+     */
+    public void abandon(String key) {
+        inFlight.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteOlderThan(new Date(System.currentTimeMillis() - ttlMillis()));
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().getTime() < System.currentTimeMillis() - ttlMillis();
+    }
+
+    private long ttlMillis() {
+        return ttlHours * 60 * 60 * 1000;
+    }
+
+    private IdempotencyRecord cached(String key) {
+        recentLock.lock();
+        try {
+            return recent.get(key);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private void cache(String key, IdempotencyRecord record) {
+        recentLock.lock();
+        try {
+            recent.put(key, record);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private void evict(String key) {
+        recentLock.lock();
+        try {
+            recent.remove(key);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+}
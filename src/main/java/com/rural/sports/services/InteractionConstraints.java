@@ -0,0 +1,47 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Interaction;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The interaction table's column limits, checked before a post is accepted so that an insert
+ * (possibly a later, batched one) cannot fail on them.
+ */
+public final class InteractionConstraints {
+
+    static final int MAX_VARCHAR = 255;
+
+    // MySQL TEXT holds up to 65535 bytes.
+    static final int MAX_CONTENT_BYTES = 65535;
+
+    private InteractionConstraints() {
+    }
+
+    /**
+     * Returns why the post cannot be stored, or null if it can.
+     */
+    public static String violation(Interaction interaction) {
+        if (interaction.getType() == null) {
+            return "type is required";
+        }
+        if (tooLong(interaction.getTitle())) {
+            return "title is longer than " + MAX_VARCHAR + " characters";
+        }
+        if (tooLong(interaction.getUserName()) || tooLong(interaction.getUserRole())) {
+            return "userName and userRole may have at most " + MAX_VARCHAR + " characters";
+        }
+        if (tooLong(interaction.getReplyContent())) {
+            return "replyContent is longer than " + MAX_VARCHAR + " characters";
+        }
+        if (interaction.getContent() != null
+                && interaction.getContent().getBytes(StandardCharsets.UTF_8).length > MAX_CONTENT_BYTES) {
+            return "content is longer than " + MAX_CONTENT_BYTES + " bytes";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_VARCHAR;
+    }
+}
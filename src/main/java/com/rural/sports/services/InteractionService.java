@@ -1,12 +1,22 @@
 package com.rural.sports.services;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Interaction;
 import com.rural.sports.models.InteractionType;
+import com.rural.sports.models.User;
 import com.rural.sports.daos.InteractionRepository;
+import com.rural.sports.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class InteractionService {
@@ -14,15 +24,117 @@ public class InteractionService {
     @Autowired
     private InteractionRepository interactionRepository;
 
+    @Autowired
+    private InteractionWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private EngagementCounters engagementCounters;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    /**
+     * @param sort "views" or "likes" orders by the in-memory counts, most first; anything else keeps the table order
+     */
+    public List<Interaction> getInteractions(List<InteractionType> types, String sort) {
+        List<Interaction> interactions = getInteractions(types);
+        for (Interaction interaction : interactions) {
+            applyCounts(interaction);
+        }
+        if ("views".equals(sort)) {
+            interactions.sort(Comparator.comparingLong(Interaction::getViewCount).reversed());
+        } else if ("likes".equals(sort)) {
+            interactions.sort(Comparator.comparingLong(Interaction::getLikeCount).reversed());
+        }
+        return interactions;
+    }
+
+    /**
+     * Returns one post; opening a notice counts as a view.
+     */
+    public Interaction getInteraction(Long id) {
+        Interaction interaction = interactionRepository.findById(id).orElse(null);
+        if (interaction == null && writeBehindBuffer.isPending(id)) {
+            flushIfPending(id);
+            interaction = interactionRepository.findById(id).orElse(null);
+        }
+        if (interaction != null && interaction.getType() == InteractionType.NOTICE) {
+            engagementCounters.recordView(id);
+            applyCounts(interaction);
+        }
+        return interaction;
+    }
+
+    public boolean likeInteraction(Long id) {
+        Interaction interaction = interactionRepository.findById(id).orElse(null);
+        if (interaction != null && interaction.getType() == InteractionType.NOTICE) {
+            engagementCounters.recordLike(id);
+            return true;
+        }
+        return false;
+    }
+
     public List<Interaction> getInteractions(List<InteractionType> types) {
-        return interactionRepository.findByTypeIn(types);
+        if (!writeBehindBuffer.isEnabled()) {
+            return interactionRepository.findByTypeIn(types);
+        }
+        // Read pending posts before the table so a post committed in between is still seen once.
+        List<Interaction> pending = writeBehindBuffer.pending(types);
+        Map<Long, Interaction> merged = new LinkedHashMap<>();
+        for (Interaction interaction : interactionRepository.findByTypeIn(types)) {
+            merged.put(interaction.getId(), interaction);
+        }
+        for (Interaction interaction : pending) {
+            merged.putIfAbsent(interaction.getId(), interaction);
+        }
+        return new ArrayList<>(merged.values());
     }
 
+    /**
+     * Stores a new post, through write-behind when enabled. A post the table cannot hold is rejected with 400.
+     */
     public Interaction addInteraction(Interaction interaction) {
-        return interactionRepository.save(interaction);
+        if (writeBehindBuffer.isEnabled()) {
+            return counted(writeBehindBuffer.enqueue(interaction));
+        }
+        return addInteractionInTransaction(interaction);
+    }
+
+    /**
+     * Saves the interaction in the caller's transaction, bypassing write-behind, so it commits or
+     * rolls back together with the caller's other writes.
+     */
+    public Interaction addInteractionInTransaction(Interaction interaction) {
+        String violation = InteractionConstraints.violation(interaction);
+        if (violation != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violation);
+        }
+        interaction.setId(idBlockAllocator.next(IdBlockAllocator.INTERACTION));
+        return counted(interactionRepository.save(interaction));
+    }
+
+    private Interaction counted(Interaction saved) {
+        statisticsService.increment(StatisticsService.INTERACTIONS_BY_TYPE, typeName(saved));
+        if (isUnansweredConsult(saved)) {
+            statisticsService.increment(StatisticsService.UNANSWERED_CONSULTS, "CONSULT");
+        }
+        return saved;
     }
 
     public Interaction updateInteraction(Long id, Interaction interactionDetails) {
+        flushIfPending(id);
         Interaction interaction = interactionRepository.findById(id).orElse(null);
         if (interaction != null) {
             interaction.setTitle(interactionDetails.getTitle());
@@ -32,16 +144,63 @@ public class InteractionService {
         return null;
     }
 
+    @Transactional
     public Interaction replyInteraction(Long id, String replyContent) {
+        flushIfPending(id);
         Interaction interaction = interactionRepository.findById(id).orElse(null);
         if (interaction != null) {
+            if (isUnansweredConsult(interaction) && replyContent != null) {
+                statisticsService.decrement(StatisticsService.UNANSWERED_CONSULTS, "CONSULT");
+            }
             interaction.setReplyContent(replyContent);
-            return interactionRepository.save(interaction);
+            Interaction saved = interactionRepository.save(interaction);
+            if (interaction.getType() == InteractionType.CONSULT && interaction.getUserId() != null) {
+                User author = userRepository.findById(interaction.getUserId()).orElse(null);
+                notificationService.notify(author, "Your question has been answered: " + interaction.getTitle(), replyContent);
+            }
+            return saved;
         }
         return null;
     }
 
     public void deleteInteraction(Long id) {
-        interactionRepository.deleteById(id);
+        flushIfPending(id);
+        Interaction interaction = interactionRepository.findById(id).orElse(null);
+        if (interaction != null) {
+            // Soft delete so offline clients receive a tombstone through /changes.
+            interaction.setDeleted(true);
+            interactionRepository.save(interaction);
+            engagementCounters.forget(id);
+            statisticsService.decrement(StatisticsService.INTERACTIONS_BY_TYPE, typeName(interaction));
+            if (isUnansweredConsult(interaction)) {
+                statisticsService.decrement(StatisticsService.UNANSWERED_CONSULTS, "CONSULT");
+            }
+        }
+    }
+
+    private void applyCounts(Interaction interaction) {
+        if (interaction.getType() == InteractionType.NOTICE && interaction.getId() != null) {
+            interaction.setViewCount(engagementCounters.views(interaction.getId()));
+            interaction.setLikeCount(engagementCounters.likes(interaction.getId()));
+        }
+    }
+
+    private static String typeName(Interaction interaction) {
+        return interaction.getType() == null ? null : interaction.getType().name();
+    }
+
+    private static boolean isUnansweredConsult(Interaction interaction) {
+        return interaction.getType() == InteractionType.CONSULT && interaction.getReplyContent() == null;
+    }
+
+    public ChangeSet<Interaction> getChanges(String since, int limit) {
+        return changeSequence.changesSince(since, limit, interactionRepository::findChanges, Interaction::getUpdateSeq);
+    }
+
+    // A post still in the write-behind queue has to reach the table before it can be modified.
+    private void flushIfPending(Long id) {
+        if (writeBehindBuffer.isPending(id)) {
+            writeBehindBuffer.flushNow();
+        }
     }
 }
@@ -0,0 +1,443 @@
+package com.rural.sports.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind mode for interaction posts (interaction.write-behind.enabled).
+ * <p>
+ * A post gets its id immediately, is appended to a local journal file and queued in memory.
+ * A single flusher thread drains the queue on an interval, or as soon as the batch size is
+ * reached, and writes the whole batch with one batched multi-row INSERT in one transaction.
+ * The journal is rotated on every flush and the rotated file is deleted only after the batch
+ * has committed, so anything not yet in the database is replayed from disk on the next start.
+ * <p>
+ * Posts are checked against the column limits before they are journaled, and ids come from the
+ * {@link IdBlockAllocator} shared with direct inserts. A batch that still fails after
+ * interaction.write-behind.max-attempts tries is written row by row; rows the database rejects
+ * are appended to interactions.deadletter in the journal directory instead of blocking the queue.
+ */
+@Component
+@Lazy(false)
+public class InteractionWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(InteractionWriteBehindBuffer.class);
+
+    private static final String INSERT_SQL = "INSERT INTO interaction "
+            + "(id, user_id, user_name, user_role, type, title, content, reply_content, create_time, update_seq, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Value("${interaction.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${interaction.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${interaction.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${interaction.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${interaction.write-behind.enqueue-timeout-ms:2000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${interaction.write-behind.journal-dir:./data/interaction-journal}")
+    private String journalDir;
+
+    @Value("${interaction.write-behind.max-attempts:3}")
+    private int maxAttempts;
+
+    // Guards the journal file and the order of (journal append, queue offer) against rotation.
+    private final ReentrantLock journalLock = new ReentrantLock();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private BlockingQueue<Interaction> queue;
+
+    private Semaphore slots;
+
+    // Batch taken from the queue that has not been committed yet; visible to readers.
+    private volatile List<Interaction> inFlight = List.of();
+
+    private ScheduledExecutorService flusher;
+
+    private TransactionTemplate transactionTemplate;
+
+    private FileChannel journal;
+
+    private Path journalFile;
+
+    private Path flushingFile;
+
+    private Path deadLetterFile;
+
+    // Failed tries of the in-flight batch; guarded by flushLock.
+    private int failedAttempts;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // Batches commit on their own even when a flush is forced from inside a caller's transaction,
+        // because the journal is deleted as soon as the insert returns.
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        queue = new LinkedBlockingQueue<>();
+        slots = new Semaphore(queueCapacity);
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        journalFile = dir.resolve("interactions.journal");
+        flushingFile = dir.resolve("interactions.journal.flushing");
+        deadLetterFile = dir.resolve("interactions.deadletter");
+        recover();
+
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "interaction-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        journal.close();
+    }
+
+    /**
+     * Checks the post, assigns an id, journals it and queues it for the next batch. A slot is held
+     * until the post is committed, so when the database falls behind callers block and, once the
+     * enqueue timeout passes, are rejected with 503. A post the table cannot hold is rejected with 400.
+     */
+    public Interaction enqueue(Interaction interaction) {
+        String violation = InteractionConstraints.violation(interaction);
+        if (violation != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violation);
+        }
+        try {
+            if (!slots.tryAcquire()) {
+                flusher.execute(this::flushQuietly);
+                if (!slots.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interaction queue is full");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while queueing interaction", e);
+        }
+
+        journalLock.lock();
+        try {
+            interaction.setId(idBlockAllocator.next(IdBlockAllocator.INTERACTION));
+            byte[] line = (objectMapper.writeValueAsString(interaction) + "\n").getBytes(StandardCharsets.UTF_8);
+            journal.write(ByteBuffer.wrap(line));
+            journal.force(false);
+            queue.add(interaction);
+        } catch (IOException e) {
+            slots.release();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interaction journal unavailable", e);
+        } finally {
+            journalLock.unlock();
+        }
+        if (queue.size() >= batchSize) {
+            flusher.execute(this::flushQuietly);
+        }
+        return interaction;
+    }
+
+    /**
+     * Posts accepted but not yet committed, so readers (including the author) see their own writes.
+     */
+    public List<Interaction> pending(List<InteractionType> types) {
+        if (!enabled) {
+            return List.of();
+        }
+        // Queue first, then the in-flight batch: a post moving between the two is seen at least once.
+        Map<Long, Interaction> result = new LinkedHashMap<>();
+        for (Interaction interaction : queue) {
+            result.put(interaction.getId(), interaction);
+        }
+        for (Interaction interaction : inFlight) {
+            result.putIfAbsent(interaction.getId(), interaction);
+        }
+        return result.values().stream().filter(i -> types.contains(i.getType())).collect(Collectors.toList());
+    }
+
+    public boolean isPending(Long id) {
+        if (!enabled || id == null) {
+            return false;
+        }
+        return inFlight.stream().anyMatch(i -> id.equals(i.getId())) || queue.stream().anyMatch(i -> id.equals(i.getId()));
+    }
+
+    /**
+     * Flushes everything queued so far, e.g. before an update or delete touches a pending post.
+     */
+    public void flushNow() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Interaction write-behind flush failed, will retry", e);
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            // A batch left over from a failed flush is retried before anything new is taken.
+            List<Interaction> batch = inFlight;
+            if (batch.isEmpty()) {
+                journalLock.lock();
+                try {
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    // Publish the batch before removing it from the queue so readers never miss it.
+                    batch = new ArrayList<>(queue);
+                    inFlight = batch;
+                    for (int i = 0; i < batch.size(); i++) {
+                        queue.poll();
+                    }
+                    rotateJournal();
+                } finally {
+                    journalLock.unlock();
+                }
+                write(batch, false);
+            } else {
+                write(batch, true);
+            }
+            failedAttempts = 0;
+            inFlight = List.of();
+            slots.release(batch.size());
+            Files.deleteIfExists(flushingFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not rotate interaction journal", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void rotateJournal() throws IOException {
+        journal.close();
+        Files.move(journalFile, flushingFile, StandardCopyOption.REPLACE_EXISTING);
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void write(List<Interaction> batch, boolean mayExist) {
+        List<Interaction> rows = mayExist ? notYetWritten(batch) : batch;
+        try {
+            insert(rows);
+        } catch (RuntimeException e) {
+            if (++failedAttempts < maxAttempts) {
+                throw e;
+            }
+            insertRowByRow(rows);
+        }
+    }
+
+    // One row the database rejects must not hold up the rest; any other failure is retried later.
+    private void insertRowByRow(List<Interaction> rows) {
+        for (Interaction row : rows) {
+            try {
+                insert(List.of(row));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(row, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void insert(List<Interaction> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // JDBC inserts bypass the JPA listener, so stamp the change sequence here.
+            for (Interaction row : rows) {
+                row.setUpdateSeq(changeSequence.next());
+            }
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<Interaction> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, i) -> {
+                    ps.setLong(1, i.getId());
+                    ps.setObject(2, i.getUserId());
+                    ps.setString(3, i.getUserName());
+                    ps.setString(4, i.getUserRole());
+                    ps.setString(5, i.getType() == null ? null : i.getType().name());
+                    ps.setString(6, i.getTitle());
+                    ps.setString(7, i.getContent());
+                    ps.setString(8, i.getReplyContent());
+                    ps.setTimestamp(9, i.getCreateTime() == null ? null : Timestamp.valueOf(i.getCreateTime()));
+                    ps.setLong(10, i.getUpdateSeq());
+                });
+            }
+        });
+    }
+
+    /**
+     * After a crash or a failed commit some rows of a batch may already be in the table. A row
+     * with the same id but other content is not ours (e.g. an id handed out before ids came from
+     * id_blocks); it is dead-lettered rather than silently dropped.
+     */
+    private List<Interaction> notYetWritten(List<Interaction> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        String placeholders = batch.stream().map(i -> "?").collect(Collectors.joining(","));
+        Map<Long, Interaction> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, type, title FROM interaction WHERE id IN (" + placeholders + ")", rs -> {
+            Interaction row = new Interaction();
+            row.setUserId(rs.getObject(2, Long.class));
+            row.setType(rs.getString(3) == null ? null : InteractionType.valueOf(rs.getString(3)));
+            row.setTitle(rs.getString(4));
+            existing.put(rs.getLong(1), row);
+        }, batch.stream().map(Interaction::getId).toArray());
+        List<Interaction> rows = new ArrayList<>(batch.size());
+        for (Interaction interaction : batch) {
+            Interaction stored = existing.get(interaction.getId());
+            if (stored == null) {
+                rows.add(interaction);
+            } else if (!Objects.equals(stored.getUserId(), interaction.getUserId()) || stored.getType() != interaction.getType()
+                    || !Objects.equals(stored.getTitle(), interaction.getTitle())) {
+                deadLetter(interaction, "id " + interaction.getId() + " already belongs to another post");
+            }
+        }
+        return rows;
+    }
+
+    private void deadLetter(Interaction interaction, String reason) {
+        log.error("Interaction post {} cannot be stored and was moved to {}: {}", interaction.getId(), deadLetterFile, reason);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("error", reason);
+        entry.put("interaction", interaction);
+        try {
+            Files.write(deadLetterFile, (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write interaction dead letter " + deadLetterFile, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Interaction> recovered = new ArrayList<>();
+        readJournal(flushingFile, recovered);
+        readJournal(journalFile, recovered);
+        if (recovered.isEmpty()) {
+            return;
+        }
+        List<Interaction> valid = new ArrayList<>(recovered.size());
+        for (Interaction interaction : recovered) {
+            String violation = InteractionConstraints.violation(interaction);
+            if (violation != null) {
+                deadLetter(interaction, violation);
+            } else {
+                valid.add(interaction);
+            }
+        }
+        List<Interaction> rows = notYetWritten(valid);
+        try {
+            insert(rows);
+        } catch (DataIntegrityViolationException e) {
+            insertRowByRow(rows);
+        }
+        Files.deleteIfExists(flushingFile);
+        Files.deleteIfExists(journalFile);
+        log.info("Recovered {} interaction posts from the write-behind journal", recovered.size());
+    }
+
+    private void readJournal(Path file, List<Interaction> into) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    into.add(objectMapper.readValue(line, Interaction.class));
+                } catch (IOException e) {
+                    // A torn final line from an unclean shutdown was never acknowledged to the client.
+                    log.warn("Skipping unreadable interaction journal line in {}", file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.rural.sports.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other application nodes which entities changed, so their in-process caches
+ * (ResponseCache, MaterialFacetIndex, StatisticsService, LeaderboardService) do not keep serving stale data.
+ * <p>
+ * Services {@link #publish} an entity key such as "material:12" after writing it; the key is queued
+ * once the transaction commits. Repeated keys are coalesced, and every
+ * invalidation.publish-interval-ms the queue is sent in batches of invalidation.batch-size keys
+ * through the configured {@link InvalidationTransport}. Keys received from other nodes are handed
+ * to the handlers {@link #subscribe subscribed} to their type, one call per type and poll. The
+ * publishing node has already updated its own caches and does not receive its own keys.
+ * Sending and polling run on the bus's own thread, so a slow database round trip neither waits
+ * for nor delays the shared @Scheduled jobs.
+ * <p>
+ * With invalidation.transport=none (a single node) publishing is a no-op.
+ */
+@Component
+@Lazy(false)
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    public static final String USER = "user";
+    public static final String EVENT = "event";
+    public static final String MATERIAL = "material";
+    public static final String TEAM = "team";
+    public static final String MATCH = "match";
+
+    @Autowired(required = false)
+    private InvalidationTransport transport;
+
+    @Value("${invalidation.batch-size:200}")
+    private int batchSize;
+
+    @Value("${invalidation.publish-interval-ms:200}")
+    private long publishIntervalMs;
+
+    @Value("${invalidation.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    private ScheduledExecutorService worker;
+
+    // Per application context, so several contexts in one JVM behave like separate nodes.
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, List<Consumer<Set<Long>>>> handlers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        if (transport == null) {
+            return;
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "invalidation-bus");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(this::flush, publishIntervalMs, publishIntervalMs, TimeUnit.MILLISECONDS);
+        worker.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(String type, Long id) {
+        if (transport == null || id == null) {
+            return;
+        }
+        String key = type + ":" + id;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(key);
+                }
+            });
+        } else {
+            pending.add(key);
+        }
+    }
+
+    /**
+     * Registers a handler for the ids of one entity type changed on other nodes.
+     */
+    public void subscribe(String type, Consumer<Set<Long>> handler) {
+        handlers.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    public void flush() {
+        if (transport == null || pending.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pending);
+        // Remove only what is sent; keys added meanwhile stay for the next flush.
+        pending.removeAll(keys);
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<String> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            try {
+                transport.send(nodeId, batch);
+            } catch (RuntimeException e) {
+                pending.addAll(keys.subList(from, keys.size()));
+                log.warn("Publishing {} cache invalidations failed, retrying: {}", keys.size() - from, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public void poll() {
+        if (transport == null) {
+            return;
+        }
+        Map<String, Set<Long>> idsByType = new LinkedHashMap<>();
+        for (String key : transport.receive(nodeId)) {
+            int colon = key.indexOf(':');
+            if (colon > 0) {
+                idsByType.computeIfAbsent(key.substring(0, colon), t -> new LinkedHashSet<>())
+                        .add(Long.valueOf(key.substring(colon + 1)));
+            }
+        }
+        idsByType.forEach((type, ids) -> {
+            for (Consumer<Set<Long>> handler : handlers.getOrDefault(type, List.of())) {
+                try {
+                    handler.accept(ids);
+                } catch (RuntimeException e) {
+                    log.warn("Applying {} {} invalidations failed: {}", ids.size(), type, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker != null) {
+            worker.shutdown();
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+}
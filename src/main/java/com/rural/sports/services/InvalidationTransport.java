@@ -0,0 +1,20 @@
+package com.rural.sports.services;
+
+import java.util.List;
+
+/**
+ * Carries batches of invalidated entity keys between application nodes for {@link InvalidationBus}.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Broadcasts one batch of keys on behalf of the given node.
+     */
+    void send(String nodeId, List<String> keys);
+
+    /**
+     * Returns the keys broadcast by other nodes since the previous call; may repeat a key, never loses one
+     * that was sent while this node was running.
+     */
+    List<String> receive(String nodeId);
+}
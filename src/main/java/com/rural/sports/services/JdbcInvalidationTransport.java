@@ -0,0 +1,94 @@
+package com.rural.sports.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Invalidation transport over the shared database, so several nodes need no extra infrastructure.
+ * <p>
+ * Each batch is one row in cache_invalidations. A node remembers the highest id it has read past
+ * and polls for newer rows. Auto-increment ids can become visible out of order when inserts
+ * commit concurrently, so the cursor does not move past a missing id until either the row shows
+ * up or invalidation.jdbc.gap-timeout-ms has passed since a later row was read.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${invalidation.jdbc.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${invalidation.jdbc.retention-ms:3600000}")
+    private long retentionMs;
+
+    // Every id up to the cursor has been read or given up on; ids above it that were read are in 'seen'.
+    private long cursor;
+
+    // Ids above the cursor already delivered, mapped to when they were read.
+    private final TreeMap<Long, Long> seen = new TreeMap<>();
+
+    @PostConstruct
+    public void init() {
+        // Rows written before this node started describe changes its caches will load fresh anyway.
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+        cursor = max == null ? 0 : max;
+    }
+
+    @Override
+    public void send(String nodeId, List<String> keys) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (node_id, cache_keys, created_at) VALUES (?, ?, ?)",
+                nodeId, String.join(",", keys), new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Called from the bus's single poller only.
+     */
+    @Override
+    public List<String> receive(String nodeId) {
+        List<String> keys = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT id, node_id, cache_keys FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT 1000", rs -> {
+            long id = rs.getLong(1);
+            if (seen.putIfAbsent(id, now) == null && !nodeId.equals(rs.getString(2))) {
+                keys.addAll(Arrays.asList(rs.getString(3).split(",")));
+            }
+        }, cursor);
+        advanceCursor(now);
+        return keys;
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.jdbc.purge-interval-ms:600000}")
+    public void purge() {
+        jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                new Timestamp(System.currentTimeMillis() - retentionMs));
+    }
+
+    private void advanceCursor(long now) {
+        while (!seen.isEmpty()) {
+            if (seen.remove(cursor + 1) != null) {
+                cursor++;
+                continue;
+            }
+            long next = seen.firstKey();
+            if (now - seen.get(next) < gapTimeoutMs) {
+                return;
+            }
+            // The ids in between never showed up: rolled back, or skipped by the id generator.
+            cursor = next - 1;
+        }
+    }
+}
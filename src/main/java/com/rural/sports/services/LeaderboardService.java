@@ -0,0 +1,312 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Match;
+import com.rural.sports.models.TeamStanding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live leaderboard per event, held in memory.
+ * <p>
+ * Each event keeps its team standings in a {@link RankedSkipList} ordered by points, goal
+ * difference, goals scored and team id, so a score change (remove, update, re-insert of two
+ * teams) and top-K / rank queries are O(log n). Every match's last applied result is remembered,
+ * so a corrected score replaces its earlier contribution instead of adding to it. Leaderboards
+ * are rebuilt at startup from teams and matches with two queries. Scores and teams written by
+ * other nodes are applied when the {@link InvalidationBus} reports them.
+ */
+@Service
+@Lazy(false)
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    static final Comparator<TeamStanding> ORDER = Comparator
+            .comparingInt(TeamStanding::getPoints).reversed()
+            .thenComparing(Comparator.comparingInt(TeamStanding::getGoalDifference).reversed())
+            .thenComparing(Comparator.comparingInt(TeamStanding::getGoalsFor).reversed())
+            .thenComparing(TeamStanding::getTeamId);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${tournament.points.win:3}")
+    private int winPoints;
+
+    @Value("${tournament.points.draw:1}")
+    private int drawPoints;
+
+    @Value("${tournament.points.loss:0}")
+    private int lossPoints;
+
+    private volatile Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        invalidationBus.subscribe(InvalidationBus.MATCH, this::reloadMatches);
+        invalidationBus.subscribe(InvalidationBus.TEAM, this::reloadTeams);
+    }
+
+    public void addTeam(Long eventId, Long teamId, String teamName) {
+        Board board = board(eventId);
+        board.lock.writeLock().lock();
+        try {
+            board.standing(teamId, teamName);
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a team off an event's leaderboard, e.g. when it is deleted or moved to another event.
+     * Results of its matches are taken back from its opponents as well.
+     */
+    public void removeTeam(Long eventId, Long teamId) {
+        Board board = boards.get(eventId);
+        if (board == null) {
+            return;
+        }
+        board.lock.writeLock().lock();
+        try {
+            board.remove(teamId);
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the leaderboard in line with the match's current score. Live and finished matches
+     * with both scores set count, as long as both teams are still on the board; anything else
+     * removes the match's earlier contribution, if any.
+     */
+    public void apply(Match match) {
+        Board board = board(match.getEventId());
+        board.lock.writeLock().lock();
+        try {
+            Result previous = board.applied.remove(match.getId());
+            if (previous != null) {
+                board.add(previous, -1);
+            }
+            if (counts(match) && board.teams.containsKey(match.getHomeTeamId()) && board.teams.containsKey(match.getAwayTeamId())) {
+                Result result = new Result(match.getHomeTeamId(), match.getAwayTeamId(), match.getHomeScore(), match.getAwayScore());
+                board.add(result, 1);
+                board.applied.put(match.getId(), result);
+            }
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    public List<TeamStanding> top(Long eventId, int count) {
+        Board board = boards.get(eventId);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        board.lock.readLock().lock();
+        try {
+            List<TeamStanding> top = new ArrayList<>();
+            int rank = 1;
+            for (TeamStanding standing : board.ranking.range(1, count)) {
+                top.add(standing.copy(rank++));
+            }
+            return top;
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    public TeamStanding standing(Long eventId, Long teamId) {
+        Board board = boards.get(eventId);
+        if (board == null) {
+            return null;
+        }
+        board.lock.readLock().lock();
+        try {
+            TeamStanding standing = board.teams.get(teamId);
+            return standing == null ? null : standing.copy(board.ranking.rank(standing));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Board> fresh = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, name, event_id FROM teams WHERE deleted = false AND event_id IS NOT NULL", rs -> {
+            fresh.computeIfAbsent(rs.getLong(3), id -> new Board()).standing(rs.getLong(1), rs.getString(2));
+        });
+        int[] matches = {0};
+        jdbcTemplate.query("SELECT m.id, m.event_id, m.home_team_id, m.away_team_id, m.home_score, m.away_score FROM matches m "
+                + "JOIN teams h ON h.id = m.home_team_id AND h.deleted = false AND h.event_id = m.event_id "
+                + "JOIN teams a ON a.id = m.away_team_id AND a.deleted = false AND a.event_id = m.event_id "
+                + "WHERE m.status IN ('" + Match.LIVE + "', '" + Match.FINISHED + "') AND m.home_score IS NOT NULL AND m.away_score IS NOT NULL", rs -> {
+            Board board = fresh.computeIfAbsent(rs.getLong(2), id -> new Board());
+            Result result = new Result(rs.getLong(3), rs.getLong(4), rs.getInt(5), rs.getInt(6));
+            board.add(result, 1);
+            board.applied.put(rs.getLong(1), result);
+            matches[0]++;
+        });
+        boards = fresh;
+        log.info("Rebuilt {} leaderboards from {} matches in {} ms", fresh.size(), matches[0], System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applies scores written by other nodes.
+     */
+    /**
+     * Re-reads the given matches and applies their stored scores.
+     */
+    public void reloadMatches(Set<Long> ids) {
+        jdbcTemplate.query("SELECT m.id, m.event_id, m.home_team_id, m.away_team_id, m.home_score, m.away_score, m.status, h.name, a.name "
+                + "FROM matches m JOIN teams h ON h.id = m.home_team_id AND h.deleted = false AND h.event_id = m.event_id "
+                + "JOIN teams a ON a.id = m.away_team_id AND a.deleted = false AND a.event_id = m.event_id "
+                + "WHERE m.id IN (" + inList(ids) + ")", rs -> {
+            Match match = new Match();
+            match.setId(rs.getLong(1));
+            match.setEventId(rs.getLong(2));
+            match.setHomeTeamId(rs.getLong(3));
+            match.setAwayTeamId(rs.getLong(4));
+            match.setHomeScore(rs.getObject(5, Integer.class));
+            match.setAwayScore(rs.getObject(6, Integer.class));
+            match.setStatus(rs.getString(7));
+            addTeam(match.getEventId(), match.getHomeTeamId(), rs.getString(8));
+            addTeam(match.getEventId(), match.getAwayTeamId(), rs.getString(9));
+            apply(match);
+        });
+    }
+
+    /**
+     * Applies teams created, renamed, moved or deleted by other nodes.
+     */
+    private void reloadTeams(Set<Long> ids) {
+        jdbcTemplate.query("SELECT id, name, event_id, deleted FROM teams WHERE id IN (" + inList(ids) + ")", rs -> {
+            long teamId = rs.getLong(1);
+            Long eventId = rs.getBoolean(4) ? null : rs.getObject(3, Long.class);
+            // The old event is not known here, so the team is taken off every other board.
+            boards.forEach((boardEventId, board) -> {
+                if (!boardEventId.equals(eventId)) {
+                    removeTeam(boardEventId, teamId);
+                }
+            });
+            if (eventId != null) {
+                addTeam(eventId, teamId, rs.getString(2));
+            }
+        });
+    }
+
+    private static String inList(Set<Long> ids) {
+        StringBuilder in = new StringBuilder();
+        for (Long id : ids) {
+            in.append(in.length() == 0 ? "" : ",").append(id.longValue());
+        }
+        return in.toString();
+    }
+
+    private static boolean counts(Match match) {
+        return (Match.LIVE.equals(match.getStatus()) || Match.FINISHED.equals(match.getStatus()))
+                && match.getHomeScore() != null && match.getAwayScore() != null;
+    }
+
+    private Board board(Long eventId) {
+        return boards.computeIfAbsent(eventId, id -> new Board());
+    }
+
+    private static final class Result {
+        final long homeTeamId;
+        final long awayTeamId;
+        final int homeScore;
+        final int awayScore;
+
+        Result(long homeTeamId, long awayTeamId, int homeScore, int awayScore) {
+            this.homeTeamId = homeTeamId;
+            this.awayTeamId = awayTeamId;
+            this.homeScore = homeScore;
+            this.awayScore = awayScore;
+        }
+    }
+
+    private final class Board {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, TeamStanding> teams = new HashMap<>();
+        final RankedSkipList<TeamStanding> ranking = new RankedSkipList<>(ORDER);
+        final Map<Long, Result> applied = new HashMap<>();
+
+        TeamStanding standing(Long teamId, String teamName) {
+            TeamStanding standing = teams.get(teamId);
+            if (standing == null) {
+                standing = new TeamStanding(teamId, teamName);
+                teams.put(teamId, standing);
+                ranking.insert(standing);
+            } else if (teamName != null) {
+                standing.setTeamName(teamName);
+            }
+            return standing;
+        }
+
+        void remove(Long teamId) {
+            TeamStanding standing = teams.get(teamId);
+            if (standing == null) {
+                return;
+            }
+            applied.values().removeIf(result -> {
+                boolean involved = result.homeTeamId == teamId || result.awayTeamId == teamId;
+                if (involved) {
+                    add(result, -1);
+                }
+                return involved;
+            });
+            ranking.remove(standing);
+            teams.remove(teamId);
+        }
+
+        /**
+         * Adds (sign 1) or takes back (sign -1) one match result.
+         */
+        void add(Result result, int sign) {
+            record(result.homeTeamId, result.homeScore, result.awayScore, sign);
+            record(result.awayTeamId, result.awayScore, result.homeScore, sign);
+        }
+
+        private void record(long teamId, int scored, int conceded, int sign) {
+            TeamStanding standing = standing(teamId, null);
+            // Re-insert so the skip list sees the new ordering.
+            ranking.remove(standing);
+            standing.setPlayed(standing.getPlayed() + sign);
+            standing.setGoalsFor(standing.getGoalsFor() + sign * scored);
+            standing.setGoalsAgainst(standing.getGoalsAgainst() + sign * conceded);
+            if (scored > conceded) {
+                standing.setWon(standing.getWon() + sign);
+                standing.setPoints(standing.getPoints() + sign * winPoints);
+            } else if (scored == conceded) {
+                standing.setDrawn(standing.getDrawn() + sign);
+                standing.setPoints(standing.getPoints() + sign * drawPoints);
+            } else {
+                standing.setLost(standing.getLost() + sign);
+                standing.setPoints(standing.getPoints() + sign * lossPoints);
+            }
+            ranking.insert(standing);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Match;
+import com.rural.sports.models.Team;
+import com.rural.sports.repositories.EventRepository;
+import com.rural.sports.repositories.MatchRepository;
+import com.rural.sports.repositories.TeamRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records matches and their scores.
+ * <p>
+ * Creating a match is a normal insert. Score changes update the leaderboard immediately and are
+ * written to the database in the background every tournament.flush-interval-ms; several changes
+ * to one match in between become one UPDATE with the latest score. Pending scores are written on
+ * shutdown; a crash loses at most one interval of score changes. Other nodes pick up a score once
+ * it is written, through the {@link InvalidationBus}.
+ * <p>
+ * Only the fields a caller actually changed are written, so a home score set on one node does not
+ * overwrite an away score or status another node set meanwhile. After a write the leaderboard
+ * re-reads the match, picking up fields changed elsewhere.
+ */
+@Service
+public class MatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchService.class);
+
+    private static final Set<String> STATUSES = Set.of(Match.SCHEDULED, Match.LIVE, Match.FINISHED);
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${tournament.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    private static final String UPDATE_SQL = "UPDATE matches SET home_score = COALESCE(?, home_score), "
+            + "away_score = COALESCE(?, away_score), status = COALESCE(?, status) WHERE id = ?";
+
+    // Latest score per match not yet written; the leaderboard already reflects it.
+    private final Map<Long, Match> pendingScores = new ConcurrentHashMap<>();
+
+    // The fields set since the last write, per match (null = unchanged). Replaced, never mutated,
+    // so flush can tell whether an entry changed while it was being written.
+    private final Map<Long, Match> pendingChanges = new ConcurrentHashMap<>();
+
+    private final ReentrantLock scoreLock = new ReentrantLock();
+
+    private ScheduledExecutorService writer;
+
+    @PostConstruct
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "match-score-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public Match createMatch(Map<String, Object> payload) {
+        Long eventId = ((Number) payload.get("eventId")).longValue();
+        Long homeTeamId = ((Number) payload.get("homeTeamId")).longValue();
+        Long awayTeamId = ((Number) payload.get("awayTeamId")).longValue();
+
+        Team home = teamRepository.findById(homeTeamId).orElse(null);
+        Team away = teamRepository.findById(awayTeamId).orElse(null);
+        if (!eventRepository.existsById(eventId) || home == null || away == null || homeTeamId.equals(awayTeamId)
+                || !inEvent(home, eventId) || !inEvent(away, eventId)) {
+            return null;
+        }
+
+        Match match = new Match();
+        match.setEventId(eventId);
+        match.setHomeTeamId(homeTeamId);
+        match.setAwayTeamId(awayTeamId);
+        match.setStatus(Match.SCHEDULED);
+        Object playedAt = payload.get("playedAt");
+        match.setPlayedAt(playedAt instanceof Number ? new Date(((Number) playedAt).longValue()) : new Date());
+        Match saved = matchRepository.save(match);
+        leaderboardService.addTeam(eventId, homeTeamId, home.getName());
+        leaderboardService.addTeam(eventId, awayTeamId, away.getName());
+        return saved;
+    }
+
+    public List<Match> getMatches(Long eventId) {
+        List<Match> matches = new ArrayList<>();
+        for (Match match : matchRepository.findByEventIdOrderByIdAsc(eventId)) {
+            Match pending = pendingScores.get(match.getId());
+            matches.add(pending != null ? pending : match);
+        }
+        return matches;
+    }
+
+    /**
+     * Sets the score and status of a match; a null score or status keeps the current one.
+     * Returns null for an unknown match or status.
+     */
+    public Match updateScore(Long id, Integer homeScore, Integer awayScore, String status) {
+        if (status != null && !STATUSES.contains(status)) {
+            return null;
+        }
+        if (homeScore != null && homeScore < 0 || awayScore != null && awayScore < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Scores cannot be negative");
+        }
+        scoreLock.lock();
+        try {
+            Match current = pendingScores.get(id);
+            if (current == null) {
+                current = matchRepository.findById(id).orElse(null);
+                if (current == null) {
+                    return null;
+                }
+            }
+            Match updated = copy(current);
+            Match previousChange = pendingChanges.get(id);
+            Match change = new Match();
+            change.setId(id);
+            if (previousChange != null) {
+                change.setHomeScore(previousChange.getHomeScore());
+                change.setAwayScore(previousChange.getAwayScore());
+                change.setStatus(previousChange.getStatus());
+            }
+            if (homeScore != null) {
+                updated.setHomeScore(homeScore);
+                change.setHomeScore(homeScore);
+            }
+            if (awayScore != null) {
+                updated.setAwayScore(awayScore);
+                change.setAwayScore(awayScore);
+            }
+            if (status != null) {
+                updated.setStatus(status);
+                change.setStatus(status);
+            }
+            leaderboardService.apply(updated);
+            pendingScores.put(id, updated);
+            pendingChanges.put(id, change);
+            return updated;
+        } finally {
+            scoreLock.unlock();
+        }
+    }
+
+    void flush() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        Map<Long, Match> batch = new LinkedHashMap<>(pendingChanges);
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Match change : batch.values()) {
+            args.add(new Object[]{change.getHomeScore(), change.getAwayScore(), change.getStatus(), change.getId()});
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        } catch (DataAccessException e) {
+            log.warn("Writing {} match scores failed, retrying: {}", batch.size(), e.getMessage());
+            return;
+        }
+        Set<Long> written = new HashSet<>();
+        scoreLock.lock();
+        try {
+            // Keep entries that changed again while this batch was being written.
+            batch.forEach((id, change) -> {
+                if (pendingChanges.remove(id, change)) {
+                    pendingScores.remove(id);
+                    written.add(id);
+                }
+            });
+        } finally {
+            scoreLock.unlock();
+        }
+        if (!written.isEmpty()) {
+            leaderboardService.reloadMatches(written);
+        }
+        batch.keySet().forEach(id -> invalidationBus.publish(InvalidationBus.MATCH, id));
+    }
+
+    private static boolean inEvent(Team team, Long eventId) {
+        return team.getEvent() != null && eventId.equals(team.getEvent().getId());
+    }
+
+    private static Match copy(Match match) {
+        Match copy = new Match();
+        copy.setId(match.getId());
+        copy.setEventId(match.getEventId());
+        copy.setHomeTeamId(match.getHomeTeamId());
+        copy.setAwayTeamId(match.getAwayTeamId());
+        copy.setHomeScore(match.getHomeScore());
+        copy.setAwayScore(match.getAwayScore());
+        copy.setStatus(match.getStatus());
+        copy.setPlayedAt(match.getPlayedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,413 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.MaterialAuditEntry;
+import com.rural.sports.models.MaterialAuditState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of material state transitions, kept in memory-mapped segment files.
+ * <p>
+ * Every record is 64 bytes:
+ * <pre>
+ *  0  action code (0 marks unused space)   1-7 reserved
+ *  8  timestamp millis                     16 material id
+ * 24  user id (0 = none)                   32 position of the previous record for the same material (-1 = none)
+ * 40  from status, 12 ASCII bytes          52 to status, 12 ASCII bytes
+ * </pre>
+ * The action byte is written last so a record torn by a crash is never read back.
+ * Records of one material are chained backwards, so its history is read by following
+ * the chain from the last position instead of scanning every segment.
+ */
+@Component
+@Lazy(false)
+public class MaterialAuditLog {
+
+    public static final byte DONATE = 1;
+    public static final byte APPROVE = 2;
+    public static final byte BORROW = 3;
+    public static final byte RETURN = 4;
+    public static final byte STATUS_CHANGE = 5;
+    public static final byte DELETE = 6;
+
+    private static final String[] ACTION_NAMES = {null, "DONATE", "APPROVE", "BORROW", "RETURN", "STATUS_CHANGE", "DELETE"};
+
+    // Status values decoded back to shared constants instead of new strings.
+    private static final String[] KNOWN_STATUSES = {"PENDING", "IN_STOCK", "BORROWED", "LOST"};
+
+    static final int RECORD_SIZE = 64;
+    private static final int STATUS_BYTES = 12;
+
+    private final Path directory;
+    private final int segmentRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private final LongLongMap lastPosition = new LongLongMap();
+
+    // Index of the next free record in the last segment.
+    private int writeIndex;
+
+    public MaterialAuditLog(@Value("${material.audit.dir:./data/material-audit}") String directory,
+                            @Value("${material.audit.segment-records:1048576}") int segmentRecords) {
+        this.directory = Paths.get(directory);
+        this.segmentRecords = segmentRecords;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith("material-audit-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            segments.add(map(file, Files.size(file)));
+        }
+        if (segments.isEmpty()) {
+            segments.add(map(segmentFile(0), (long) segmentRecords * RECORD_SIZE));
+        }
+
+        // Rebuild the per-material chain heads and find where the last segment ends.
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            int records = segment.capacity() / RECORD_SIZE;
+            int i = 0;
+            while (i < records && segment.get(i * RECORD_SIZE) != 0) {
+                lastPosition.put(segment.getLong(i * RECORD_SIZE + 16), position(s, i));
+                i++;
+            }
+            writeIndex = i;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${material.audit.force-interval-ms:1000}")
+    public void flush() {
+        lock.lock();
+        try {
+            if (!segments.isEmpty()) {
+                segments.get(segments.size() - 1).force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a transition once the surrounding transaction commits, or right away if there is none.
+     */
+    public void record(byte action, long materialId, long userId, String fromStatus, String toStatus) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(action, materialId, userId, fromStatus, toStatus);
+                }
+            });
+        } else {
+            append(action, materialId, userId, fromStatus, toStatus);
+        }
+    }
+
+    /**
+     * Writes one record straight into the mapped segment; nothing is allocated unless a segment rolls over.
+     */
+    public void append(byte action, long materialId, long userId, String fromStatus, String toStatus) {
+        lock.lock();
+        try {
+            if (writeIndex == segments.get(segments.size() - 1).capacity() / RECORD_SIZE) {
+                roll();
+            }
+            int segmentIndex = segments.size() - 1;
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            int offset = writeIndex * RECORD_SIZE;
+            segment.putLong(offset + 8, System.currentTimeMillis());
+            segment.putLong(offset + 16, materialId);
+            segment.putLong(offset + 24, userId);
+            segment.putLong(offset + 32, lastPosition.get(materialId, -1));
+            putStatus(segment, offset + 40, fromStatus);
+            putStatus(segment, offset + 52, toStatus);
+            segment.put(offset, action);
+            lastPosition.put(materialId, position(segmentIndex, writeIndex));
+            writeIndex++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not roll material audit segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * All transitions of one material, oldest first.
+     */
+    public List<MaterialAuditEntry> history(long materialId) {
+        List<MaterialAuditEntry> entries = new ArrayList<>();
+        lock.lock();
+        try {
+            long position = lastPosition.get(materialId, -1);
+            while (position >= 0) {
+                MappedByteBuffer segment = segments.get((int) (position >>> 32));
+                int offset = (int) (position & 0xFFFFFFFFL) * RECORD_SIZE;
+                entries.add(read(segment, offset));
+                position = segment.getLong(offset + 32);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Collections.reverse(entries);
+        return entries;
+    }
+
+    /**
+     * Rebuilds the current status, donor and holder of every material that has not been deleted.
+     */
+    public Map<Long, MaterialAuditState> replay() {
+        List<MappedByteBuffer> snapshot;
+        int end;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(segments);
+            end = writeIndex;
+        } finally {
+            lock.unlock();
+        }
+        return replay(snapshot, end);
+    }
+
+    /**
+     * Same as {@link #replay()} for a log directory that is not opened for writing, e.g. by an offline tool.
+     * Segments are opened read-only, so nothing in the directory is created or modified; a missing
+     * directory or segment is treated as empty.
+     */
+    public static Map<Long, MaterialAuditState> replayReadOnly(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new LinkedHashMap<>();
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith("material-audit-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (NoSuchFileException e) {
+                // Removed since it was listed.
+            }
+        }
+        // The end of the last segment is found by its first unused record.
+        return replay(segments, -1);
+    }
+
+    /**
+     * @param end number of records in the last segment, or -1 to read it up to the first unused record
+     */
+    private static Map<Long, MaterialAuditState> replay(List<MappedByteBuffer> snapshot, int end) {
+        Map<Long, MaterialAuditState> states = new LinkedHashMap<>();
+        for (int s = 0; s < snapshot.size(); s++) {
+            MappedByteBuffer segment = snapshot.get(s);
+            int records = s == snapshot.size() - 1 && end >= 0 ? end : segment.capacity() / RECORD_SIZE;
+            for (int i = 0; i < records; i++) {
+                int offset = i * RECORD_SIZE;
+                byte action = segment.get(offset);
+                if (action == 0) {
+                    break;
+                }
+                long materialId = segment.getLong(offset + 16);
+                if (action == DELETE) {
+                    states.remove(materialId);
+                    continue;
+                }
+                MaterialAuditState state = states.computeIfAbsent(materialId, id -> {
+                    MaterialAuditState created = new MaterialAuditState();
+                    created.setMaterialId(id);
+                    return created;
+                });
+                long userId = segment.getLong(offset + 24);
+                if (action == DONATE) {
+                    state.setDonorId(userId == 0 ? null : userId);
+                } else if (action == BORROW) {
+                    state.setHolderId(userId == 0 ? null : userId);
+                } else if (action == RETURN) {
+                    state.setHolderId(null);
+                }
+                state.setStatus(getStatus(segment, offset + 52));
+                state.setLastChange(new Date(segment.getLong(offset + 8)));
+            }
+        }
+        return states;
+    }
+
+    private MaterialAuditEntry read(MappedByteBuffer segment, int offset) {
+        long userId = segment.getLong(offset + 24);
+        return new MaterialAuditEntry(
+                ACTION_NAMES[segment.get(offset)],
+                new Date(segment.getLong(offset + 8)),
+                segment.getLong(offset + 16),
+                userId == 0 ? null : userId,
+                getStatus(segment, offset + 40),
+                getStatus(segment, offset + 52));
+    }
+
+    private void roll() throws IOException {
+        segments.get(segments.size() - 1).force();
+        segments.add(map(segmentFile(segments.size()), (long) segmentRecords * RECORD_SIZE));
+        writeIndex = 0;
+    }
+
+    private Path segmentFile(int index) {
+        return directory.resolve(String.format("material-audit-%06d.log", index));
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long position(int segment, int index) {
+        return ((long) segment << 32) | index;
+    }
+
+    private static void putStatus(MappedByteBuffer segment, int offset, String status) {
+        int length = status == null ? 0 : Math.min(status.length(), STATUS_BYTES);
+        for (int i = 0; i < STATUS_BYTES; i++) {
+            segment.put(offset + i, i < length ? (byte) status.charAt(i) : 0);
+        }
+    }
+
+    private static String getStatus(MappedByteBuffer segment, int offset) {
+        int length = 0;
+        while (length < STATUS_BYTES && segment.get(offset + length) != 0) {
+            length++;
+        }
+        if (length == 0) {
+            return null;
+        }
+        for (String known : KNOWN_STATUSES) {
+            if (matches(segment, offset, length, known)) {
+                return known;
+            }
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = segment.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean matches(MappedByteBuffer segment, int offset, int length, String value) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (segment.get(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing long-to-long map so updating chain heads does not box on every append.
+     */
+    private static final class LongLongMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1024);
+        private long[] values = new long[1024];
+        private int size;
+
+        long get(long key, long missing) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return missing;
+                }
+            }
+        }
+
+        void put(long key, long value) {
+            if (size * 2 >= keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
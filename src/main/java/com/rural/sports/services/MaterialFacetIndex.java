@@ -0,0 +1,430 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Material;
+import com.rural.sports.models.MaterialSearchResult;
+import com.rural.sports.models.MaterialSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory bitmap index over the non-deleted materials, for faceted search without a table scan.
+ * <p>
+ * Every material gets a slot; each facet value (type, status, conditionLevel, donor village) has a
+ * bitmap of the slots that carry it. A search ANDs the bitmaps of the requested values, counts
+ * facets with word-wise AND + popcount, and reads one page of summaries from the matching slots.
+ * <p>
+ * MaterialService and the bulk import report changes after commit. The index is built at startup
+ * and rebuilt every material.facets.rebuild-interval-ms, which also compacts slots freed by
+ * deletes; changes reported while a rebuild is loading are replayed onto the new index. Materials
+ * and donors changed on other nodes are reloaded when the {@link InvalidationBus} reports them.
+ */
+@Component
+@Lazy(false)
+public class MaterialFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MaterialFacetIndex.class);
+
+    public static final String TYPE = "type";
+    public static final String STATUS = "status";
+    public static final String CONDITION = "conditionLevel";
+    public static final String VILLAGE = "village";
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private static final String[] DIMENSIONS = {TYPE, STATUS, CONDITION, VILLAGE};
+
+    private static final String LOAD_SQL = "SELECT m.id, m.name, m.type, m.status, m.condition_level, m.donor_id, u.village, m.current_holder_id "
+            + "FROM materials m LEFT JOIN users u ON u.id = m.donor_id WHERE m.deleted = false";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+
+    // Non-null while a rebuild is loading; changes are queued here and replayed onto the new index.
+    private List<Consumer<Index>> pendingDuringRebuild;
+
+    @PostConstruct
+    public void init() {
+        invalidationBus.subscribe(InvalidationBus.MATERIAL, this::load);
+        // A donor's village may have changed.
+        invalidationBus.subscribe(InvalidationBus.USER, donorIds -> {
+            List<MaterialSummary> loaded = new ArrayList<>();
+            jdbcTemplate.query(LOAD_SQL + " AND m.donor_id IN (" + inList(donorIds) + ")", rs -> {
+                loaded.add(summary(rs));
+            });
+            apply(idx -> loaded.forEach(idx::put));
+        });
+    }
+
+    public void put(Material material) {
+        MaterialSummary summary = new MaterialSummary(material.getId(), material.getName(), material.getType(),
+                material.getStatus(), material.getConditionLevel(),
+                material.getDonor() == null ? null : material.getDonor().getId(),
+                material.getDonor() == null ? null : material.getDonor().getVillage(),
+                material.getCurrentHolder() == null ? null : material.getCurrentHolder().getId());
+        afterCommit(idx -> idx.put(summary));
+    }
+
+    public void remove(Long id) {
+        afterCommit(idx -> idx.remove(id));
+    }
+
+    /**
+     * Reloads the given materials from the database, for writers that do not hold entities (bulk import).
+     */
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> copy = new ArrayList<>(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    load(copy);
+                }
+            });
+        } else {
+            load(ids);
+        }
+    }
+
+    /**
+     * Updates the donor village of every material given by this user.
+     */
+    public void updateDonorVillage(Long donorId, String village) {
+        afterCommit(idx -> idx.updateDonorVillage(donorId, village));
+    }
+
+    /**
+     * @param filters   accepted values per dimension; a material matches when it has one of them in every dimension given
+     * @param minCondition optional lower bound on conditionLevel
+     */
+    public MaterialSearchResult search(Map<String, Collection<String>> filters, Integer minCondition, int page, int size) {
+        lock.readLock().lock();
+        try {
+            Index idx = index;
+            Bitmap matches = idx.live.copy();
+            for (String dimension : DIMENSIONS) {
+                Collection<String> values = filters.get(dimension);
+                if (values != null && !values.isEmpty()) {
+                    matches.and(idx.union(dimension, values::contains));
+                }
+            }
+            if (minCondition != null) {
+                matches.and(idx.union(CONDITION, value -> !UNKNOWN.equals(value) && Integer.parseInt(value) >= minCondition));
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                Map<String, Integer> counts = new TreeMap<>();
+                idx.dimensions.get(dimension).forEach((value, bitmap) -> {
+                    int count = matches.andCardinality(bitmap);
+                    if (count > 0) {
+                        counts.put(value, count);
+                    }
+                });
+                facets.put(dimension, counts);
+            }
+
+            int total = matches.cardinality();
+            List<MaterialSummary> items = new ArrayList<>();
+            // As a long: page * size overflows int for large page numbers.
+            long skip = (long) page * size;
+            int first = skip >= total ? -1 : matches.nextSetBit(0);
+            for (int slot = first; slot >= 0 && items.size() < size; slot = matches.nextSetBit(slot + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    items.add(idx.docs.get(slot));
+                }
+            }
+            return new MaterialSearchResult(total, page, size, items, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${material.facets.rebuild-interval-ms:3600000}", fixedDelayString = "${material.facets.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = new Index();
+        boolean loaded = false;
+        try {
+            jdbcTemplate.query(LOAD_SQL + " ORDER BY m.id", rs -> {
+                fresh.put(summary(rs));
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // Changes made while loading were applied to the old index; replay them on the new one.
+                if (loaded) {
+                    pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                    index = fresh;
+                }
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Material facet index built with {} materials", fresh.slotById.size());
+    }
+
+    /**
+     * Reloads the given materials; ids that are gone or soft-deleted are removed from the index.
+     */
+    private void load(Collection<Long> ids) {
+        List<MaterialSummary> loaded = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SQL + " AND m.id IN (" + inList(ids) + ")", rs -> {
+            loaded.add(summary(rs));
+        });
+        Set<Long> missing = new HashSet<>(ids);
+        loaded.forEach(summary -> missing.remove(summary.getId()));
+        apply(idx -> {
+            missing.forEach(idx::remove);
+            loaded.forEach(idx::put);
+        });
+    }
+
+    private static String inList(Collection<Long> ids) {
+        StringBuilder in = new StringBuilder();
+        for (Long id : ids) {
+            in.append(in.length() == 0 ? "" : ",").append(id.longValue());
+        }
+        return in.toString();
+    }
+
+    private static MaterialSummary summary(ResultSet rs) throws SQLException {
+        return new MaterialSummary(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getObject(5, Integer.class), rs.getObject(6, Long.class), rs.getString(7), rs.getObject(8, Long.class));
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class Index {
+        final Map<Long, Integer> slotById = new HashMap<>();
+        final List<MaterialSummary> docs = new ArrayList<>();
+        final Bitmap live = new Bitmap();
+        final Map<String, Map<String, Bitmap>> dimensions = new HashMap<>();
+
+        Index() {
+            for (String dimension : DIMENSIONS) {
+                dimensions.put(dimension, new HashMap<>());
+            }
+        }
+
+        void put(MaterialSummary doc) {
+            Integer slot = slotById.get(doc.getId());
+            if (slot == null) {
+                slot = docs.size();
+                docs.add(null);
+                slotById.put(doc.getId(), slot);
+            } else {
+                unindex(slot);
+            }
+            docs.set(slot, doc);
+            live.set(slot);
+            for (String dimension : DIMENSIONS) {
+                dimensions.get(dimension).computeIfAbsent(value(doc, dimension), v -> new Bitmap()).set(slot);
+            }
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                unindex(slot);
+                docs.set(slot, null);
+            }
+        }
+
+        void updateDonorVillage(Long donorId, String village) {
+            for (MaterialSummary doc : new ArrayList<>(docs)) {
+                if (doc != null && donorId.equals(doc.getDonorId())) {
+                    put(new MaterialSummary(doc.getId(), doc.getName(), doc.getType(), doc.getStatus(),
+                            doc.getConditionLevel(), donorId, village, doc.getCurrentHolderId()));
+                }
+            }
+        }
+
+        Bitmap union(String dimension, Predicate<String> accept) {
+            Bitmap result = new Bitmap();
+            dimensions.get(dimension).forEach((value, bitmap) -> {
+                if (accept.test(value)) {
+                    result.or(bitmap);
+                }
+            });
+            return result;
+        }
+
+        private void unindex(int slot) {
+            MaterialSummary doc = docs.get(slot);
+            if (doc == null) {
+                return;
+            }
+            live.clear(slot);
+            for (String dimension : DIMENSIONS) {
+                Bitmap bitmap = dimensions.get(dimension).get(value(doc, dimension));
+                if (bitmap != null) {
+                    bitmap.clear(slot);
+                }
+            }
+        }
+
+        private static String value(MaterialSummary doc, String dimension) {
+            Object value;
+            switch (dimension) {
+                case TYPE: value = doc.getType(); break;
+                case STATUS: value = doc.getStatus(); break;
+                case CONDITION: value = doc.getConditionLevel(); break;
+                default: value = doc.getDonorVillage(); break;
+            }
+            return value == null ? UNKNOWN : value.toString();
+        }
+    }
+
+    /**
+     * Growable bitset with the word-wise operations the search needs; unlike java.util.BitSet it
+     * can count an intersection without allocating one.
+     */
+    static final class Bitmap {
+        private long[] words = new long[16];
+
+        void set(int bit) {
+            int word = bit >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+            }
+            words[word] |= 1L << bit;
+        }
+
+        void clear(int bit) {
+            int word = bit >>> 6;
+            if (word < words.length) {
+                words[word] &= ~(1L << bit);
+            }
+        }
+
+        Bitmap copy() {
+            Bitmap copy = new Bitmap();
+            copy.words = words.clone();
+            return copy;
+        }
+
+        void and(Bitmap other) {
+            int common = Math.min(words.length, other.words.length);
+            for (int i = 0; i < common; i++) {
+                words[i] &= other.words[i];
+            }
+            Arrays.fill(words, common, words.length, 0L);
+        }
+
+        void or(Bitmap other) {
+            if (other.words.length > words.length) {
+                words = Arrays.copyOf(words, other.words.length);
+            }
+            for (int i = 0; i < other.words.length; i++) {
+                words[i] |= other.words[i];
+            }
+        }
+
+        int cardinality() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        int andCardinality(Bitmap other) {
+            int common = Math.min(words.length, other.words.length);
+            int count = 0;
+            for (int i = 0; i < common; i++) {
+                count += Long.bitCount(words[i] & other.words[i]);
+            }
+            return count;
+        }
+
+        int nextSetBit(int from) {
+            int word = from >>> 6;
+            if (word >= words.length) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return word * 64 + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+        }
+    }
+}
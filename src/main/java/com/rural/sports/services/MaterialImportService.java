@@ -0,0 +1,358 @@
+package com.rural.sports.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rural.sports.models.User;
+import com.rural.sports.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a CSV or NDJSON upload of donated materials into the materials table.
+ * <p>
+ * The upload is read line by line and never held in memory as a whole. Rows are collected into
+ * chunks; for each chunk the donors not seen earlier in this import are looked up with one query,
+ * and the chunk is inserted with one JDBC batch in its own transaction. After every chunk a progress
+ * line is written, and every rejected row is reported with its line number, as NDJSON. A chunk the
+ * database rejects is reported as one error covering its lines and the import goes on; the final
+ * "done" line is written however the import ends.
+ * <p>
+ * CSV needs a header naming the columns name, type, conditionLevel and donorId (any order).
+ * Quoted fields are supported but may not span lines.
+ */
+@Service
+public class MaterialImportService {
+
+    // materials.name and materials.type are VARCHAR(255).
+    private static final int MAX_TEXT = 255;
+
+    private static final String INSERT_SQL = "INSERT INTO materials "
+            + "(name, type, condition_level, status, donor_id, update_seq, deleted) VALUES (?, ?, ?, 'PENDING', ?, ?, false)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private MaterialAuditLog materialAuditLog;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private MaterialFacetIndex materialFacetIndex;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${material.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${material.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public void importMaterials(BufferedReader reader, boolean ndjson, Writer report) throws IOException {
+        Import state = new Import(report);
+        try {
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            Map<String, Integer> columns = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!ndjson && columns == null) {
+                    columns = header(line);
+                    if (!columns.containsKey("name")) {
+                        state.error(lineNumber, "CSV header must name the columns name, type, conditionLevel, donorId");
+                        break;
+                    }
+                    continue;
+                }
+                state.processed++;
+                try {
+                    chunk.add(ndjson ? parseJson(lineNumber, line) : parseCsv(lineNumber, line, columns));
+                } catch (IllegalArgumentException e) {
+                    state.error(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    insertChunk(chunk, state);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, state);
+            }
+        } finally {
+            state.finish();
+        }
+    }
+
+    private void insertChunk(List<Row> chunk, Import state) throws IOException {
+        // One lookup per chunk for donors this import has not seen yet.
+        Set<Long> unseen = new HashSet<>();
+        for (Row row : chunk) {
+            if (row.donorId != null && !state.donorExists.containsKey(row.donorId)) {
+                unseen.add(row.donorId);
+            }
+        }
+        if (!unseen.isEmpty()) {
+            Set<Long> found = new HashSet<>();
+            for (User user : userRepository.findAllById(unseen)) {
+                found.add(user.getId());
+            }
+            for (Long id : unseen) {
+                state.donorExists.put(id, found.contains(id));
+            }
+        }
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.donorId != null && !state.donorExists.get(row.donorId)) {
+                state.error(row.line, "Unknown donorId " + row.donorId);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(valid));
+                state.inserted += valid.size();
+            } catch (DataAccessException e) {
+                state.chunkError(valid, "Not imported: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        state.progress();
+    }
+
+    private void insert(List<Row> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Row row : rows) {
+                    ps.setString(1, row.name);
+                    ps.setString(2, row.type);
+                    if (row.conditionLevel == null) {
+                        ps.setNull(3, Types.INTEGER);
+                    } else {
+                        ps.setInt(3, row.conditionLevel);
+                    }
+                    if (row.donorId == null) {
+                        ps.setNull(4, Types.BIGINT);
+                    } else {
+                        ps.setLong(4, row.donorId);
+                    }
+                    ps.setLong(5, changeSequence.next());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < rows.size()) {
+                        Row row = rows.get(i++);
+                        ids.add(keys.getLong(1));
+                        materialAuditLog.record(MaterialAuditLog.DONATE, keys.getLong(1),
+                                row.donorId == null ? 0 : row.donorId, null, "PENDING");
+                    }
+                }
+            }
+            return null;
+        });
+        Map<String, Long> byType = new HashMap<>();
+        for (Row row : rows) {
+            byType.merge(row.type == null ? "UNKNOWN" : row.type, 1L, Long::sum);
+        }
+        statisticsService.add(StatisticsService.MATERIALS_BY_STATUS, "PENDING", rows.size());
+        byType.forEach((type, count) -> statisticsService.add(StatisticsService.MATERIALS_BY_TYPE, type, count));
+        materialFacetIndex.refresh(ids);
+        ids.forEach(id -> invalidationBus.publish(InvalidationBus.MATERIAL, id));
+    }
+
+    private Row parseJson(int lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        return row(lineNumber, text(node, "name"), text(node, "type"), text(node, "conditionLevel"), text(node, "donorId"));
+    }
+
+    private Row parseCsv(int lineNumber, String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        return row(lineNumber, field(fields, columns, "name"), field(fields, columns, "type"),
+                field(fields, columns, "conditionLevel"), field(fields, columns, "donorId"));
+    }
+
+    private static Row row(int lineNumber, String name, String type, String conditionLevel, String donorId) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (name.trim().length() > MAX_TEXT || type != null && type.trim().length() > MAX_TEXT) {
+            throw new IllegalArgumentException("name and type may have at most " + MAX_TEXT + " characters");
+        }
+        Row row = new Row();
+        row.line = lineNumber;
+        row.name = name.trim();
+        row.type = type == null || type.isBlank() ? null : type.trim();
+        try {
+            row.conditionLevel = conditionLevel == null || conditionLevel.isBlank() ? null : Integer.valueOf(conditionLevel.trim());
+            row.donorId = donorId == null || donorId.isBlank() ? null : Long.valueOf(donorId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("conditionLevel and donorId must be numbers");
+        }
+        if (row.conditionLevel != null && (row.conditionLevel < 1 || row.conditionLevel > 5)) {
+            throw new IllegalArgumentException("conditionLevel must be between 1 and 5");
+        }
+        return row;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static Map<String, Integer> header(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        return columns;
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class Row {
+        int line;
+        String name;
+        String type;
+        Integer conditionLevel;
+        Long donorId;
+    }
+
+    // Per-import state: donor cache, counters and the NDJSON report stream.
+    private class Import {
+        final Map<Long, Boolean> donorExists = new HashMap<>();
+        final Writer report;
+        long processed;
+        long inserted;
+        long errors;
+
+        Import(Writer report) {
+            this.report = report;
+        }
+
+        void error(int line, String message) throws IOException {
+            errors++;
+            if (errors <= maxReportedErrors) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("line", line);
+                entry.put("error", message);
+                write(entry);
+            }
+        }
+
+        // One entry for a whole chunk: its first and last line.
+        void chunkError(List<Row> rows, String message) throws IOException {
+            boolean report = errors < maxReportedErrors;
+            errors += rows.size();
+            if (report) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("line", rows.get(0).line);
+                entry.put("lastLine", rows.get(rows.size() - 1).line);
+                entry.put("error", message);
+                write(entry);
+            }
+        }
+
+        void progress() throws IOException {
+            write(counters("progress"));
+            report.flush();
+        }
+
+        void finish() throws IOException {
+            write(counters("done"));
+            report.flush();
+        }
+
+        private Map<String, Object> counters(String kind) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put(kind, true);
+            entry.put("processed", processed);
+            entry.put("inserted", inserted);
+            entry.put("errors", errors);
+            return entry;
+        }
+
+        private void write(Map<String, Object> entry) throws IOException {
+            report.write(objectMapper.writeValueAsString(entry));
+            report.write('\n');
+        }
+    }
+}
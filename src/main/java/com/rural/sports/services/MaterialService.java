@@ -1,13 +1,18 @@
 package com.rural.sports.services;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Material;
+import com.rural.sports.models.MaterialAuditEntry;
+import com.rural.sports.models.MaterialSearchResult;
 import com.rural.sports.repositories.MaterialRepository; // Assuming a DAO/Repository exists
 import com.rural.sports.models.User;
 import com.rural.sports.repositories.UserRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +25,24 @@ public class MaterialService {
     @Autowired
     private UserRepository userRepository; // To get donor/holder info
 
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private MaterialAuditLog materialAuditLog;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private MaterialFacetIndex materialFacetIndex;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
     public List<Material> getAllMaterials() {
         return materialRepository.findAll();
     }
@@ -39,7 +62,25 @@ public class MaterialService {
         material.setDonor(donor);
         material.setStatus("PENDING"); // Default status on donation
 
-        return materialRepository.save(material);
+        Material saved = materialRepository.save(material);
+        materialAuditLog.record(MaterialAuditLog.DONATE, saved.getId(), donorId, null, "PENDING");
+        statisticsService.increment(StatisticsService.MATERIALS_BY_STATUS, "PENDING");
+        statisticsService.increment(StatisticsService.MATERIALS_BY_TYPE, type);
+        materialFacetIndex.put(saved);
+        invalidationBus.publish(InvalidationBus.MATERIAL, saved.getId());
+        return saved;
+    }
+
+    public MaterialSearchResult searchMaterials(Map<String, Collection<String>> filters, Integer minCondition, int page, int size) {
+        return materialFacetIndex.search(filters, minCondition, page, size);
+    }
+
+    public List<MaterialAuditEntry> getMaterialHistory(Long id) {
+        return materialAuditLog.history(id);
+    }
+
+    public ChangeSet<Material> getChanges(String since, int limit) {
+        return changeSequence.changesSince(since, limit, materialRepository::findChanges, Material::getUpdateSeq);
     }
 
     public boolean borrowMaterial(Long materialId, Long userId) {
@@ -50,6 +91,10 @@ public class MaterialService {
             material.setStatus("BORROWED");
             material.setCurrentHolder(user);
             materialRepository.save(material);
+            materialAuditLog.record(MaterialAuditLog.BORROW, materialId, userId, "IN_STOCK", "BORROWED");
+            statisticsService.move(StatisticsService.MATERIALS_BY_STATUS, "IN_STOCK", "BORROWED");
+            materialFacetIndex.put(material);
+            invalidationBus.publish(InvalidationBus.MATERIAL, material.getId());
             return true;
         }
         return false;
@@ -58,27 +103,54 @@ public class MaterialService {
     public boolean returnMaterial(Long materialId) {
         Material material = materialRepository.findById(materialId).orElse(null);
         if (material != null && "BORROWED".equals(material.getStatus())) {
+            User holder = material.getCurrentHolder();
             material.setStatus("IN_STOCK");
             material.setCurrentHolder(null);
             materialRepository.save(material);
+            materialAuditLog.record(MaterialAuditLog.RETURN, materialId, holder == null ? 0 : holder.getId(), "BORROWED", "IN_STOCK");
+            statisticsService.move(StatisticsService.MATERIALS_BY_STATUS, "BORROWED", "IN_STOCK");
+            materialFacetIndex.put(material);
+            invalidationBus.publish(InvalidationBus.MATERIAL, material.getId());
             return true;
         }
         return false;
     }
 
+    @Transactional
     public boolean updateMaterialStatus(Long id, String status) {
         Material material = materialRepository.findById(id).orElse(null);
         if (material != null) {
+            String previous = material.getStatus();
+            boolean approved = "PENDING".equals(previous) && "IN_STOCK".equals(status);
             material.setStatus(status);
             materialRepository.save(material);
+            User holder = material.getCurrentHolder();
+            materialAuditLog.record(approved ? MaterialAuditLog.APPROVE : MaterialAuditLog.STATUS_CHANGE,
+                    id, holder == null ? 0 : holder.getId(), previous, status);
+            statisticsService.move(StatisticsService.MATERIALS_BY_STATUS, previous, status);
+            materialFacetIndex.put(material);
+            invalidationBus.publish(InvalidationBus.MATERIAL, material.getId());
+            if (approved) {
+                notificationService.notify(material.getDonor(), "Your donation has been approved",
+                        "Thank you! Your donated " + material.getName() + " is now available for villagers to borrow.");
+            }
             return true;
         }
         return false;
     }
 
     public boolean deleteMaterial(Long id) {
-        if (materialRepository.existsById(id)) {
-            materialRepository.deleteById(id);
+        Material material = materialRepository.findById(id).orElse(null);
+        if (material != null) {
+            // Soft delete so offline clients receive a tombstone through /changes.
+            material.setDeleted(true);
+            materialRepository.save(material);
+            User holder = material.getCurrentHolder();
+            materialAuditLog.record(MaterialAuditLog.DELETE, id, holder == null ? 0 : holder.getId(), material.getStatus(), null);
+            statisticsService.decrement(StatisticsService.MATERIALS_BY_STATUS, material.getStatus());
+            statisticsService.decrement(StatisticsService.MATERIALS_BY_TYPE, material.getType());
+            materialFacetIndex.remove(id);
+            invalidationBus.publish(InvalidationBus.MATERIAL, id);
             return true;
         }
         return false;
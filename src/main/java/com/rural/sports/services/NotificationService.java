@@ -0,0 +1,52 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.EmailOutbox;
+import com.rural.sports.models.User;
+import com.rural.sports.repositories.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+/**
+ * Queues user notifications in the email outbox. Callers invoke this inside their own
+ * transaction so the notification is committed (or rolled back) together with the change
+ * it describes; {@link EmailDispatcher} sends it later.
+ */
+@Service
+public class NotificationService {
+
+    private static final int MAX_SUBJECT = 255;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Transactional
+    public void notify(User user, String subject, String body) {
+        String address = emailOf(user);
+        if (address == null) {
+            return;
+        }
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(address);
+        // Subjects embed user-supplied titles and names; the column holds 255 characters.
+        email.setSubject(subject != null && subject.length() > MAX_SUBJECT ? subject.substring(0, MAX_SUBJECT - 3) + "..." : subject);
+        email.setBody(body);
+        email.setStatus("PENDING");
+        email.setAttempts(0);
+        Date now = new Date();
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
+        emailOutboxRepository.save(email);
+    }
+
+    // contactInfo holds either a phone number or an email address; only the latter can be mailed.
+    private String emailOf(User user) {
+        if (user == null || user.getContactInfo() == null) {
+            return null;
+        }
+        String contact = user.getContactInfo().trim();
+        return contact.contains("@") ? contact : null;
+    }
+}
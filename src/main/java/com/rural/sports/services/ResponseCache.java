@@ -0,0 +1,166 @@
+package com.rural.sports.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight cache of serialized detail responses, e.g. GET /api/events/{id}.
+ * <p>
+ * Concurrent requests for the same key share one load and one serialized byte array; the bytes
+ * are then served for response-cache.ttl-ms. Writers call {@link #invalidate} or
+ * {@link #invalidatePrefix}, which take effect after the surrounding transaction commits, so a
+ * load that started before the commit is never kept. Changes that are not invalidated
+ * explicitly (e.g. a team member renaming themselves) show up once the entry expires.
+ * Changes made on other nodes arrive through the {@link InvalidationBus}.
+ */
+@Component
+public class ResponseCache {
+
+    private static final String JSON = "json:";
+    private static final String CBOR = "cbor:";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${response-cache.ttl-ms:2000}")
+    private long ttlMs;
+
+    private ObjectMapper cborMapper;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        invalidationBus.subscribe(InvalidationBus.EVENT, ids -> {
+            ids.forEach(id -> invalidate("event:" + id));
+            invalidatePrefix("team:");
+        });
+        invalidationBus.subscribe(InvalidationBus.TEAM, ids -> ids.forEach(id -> invalidate("team:" + id)));
+        // Team details embed their members.
+        invalidationBus.subscribe(InvalidationBus.USER, ids -> invalidatePrefix("team:"));
+    }
+
+    /**
+     * Returns the cached response for the key, or runs the loader once for all concurrent callers.
+     * A null result is returned as an empty 200 response, like a controller returning null, and is not cached.
+     *
+     * @param accept the request's Accept header; CBOR is served when it asks for application/cbor
+     */
+    public ResponseEntity<byte[]> get(String key, String accept, Supplier<?> loader) {
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        String cacheKey = (cbor ? CBOR : JSON) + key;
+        byte[] body = load(cacheKey, cbor ? cborMapper : objectMapper, loader);
+        if (body == null) {
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    public void invalidate(String key) {
+        afterCommit(() -> {
+            flights.remove(JSON + key);
+            flights.remove(CBOR + key);
+        });
+    }
+
+    public void invalidatePrefix(String prefix) {
+        afterCommit(() -> flights.keySet().removeIf(k -> k.startsWith(JSON + prefix) || k.startsWith(CBOR + prefix)));
+    }
+
+    @Scheduled(fixedDelayString = "${response-cache.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        flights.values().removeIf(flight -> flight.result.isDone() && flight.expiresAt <= now);
+    }
+
+    private byte[] load(String cacheKey, ObjectMapper mapper, Supplier<?> loader) {
+        while (true) {
+            Flight current = flights.get(cacheKey);
+            if (current != null && (!current.result.isDone() || current.expiresAt > System.currentTimeMillis())) {
+                return await(current);
+            }
+            Flight mine = new Flight();
+            boolean won = current == null
+                    ? flights.putIfAbsent(cacheKey, mine) == null
+                    : flights.replace(cacheKey, current, mine);
+            if (!won) {
+                continue;
+            }
+            try {
+                Object value = loader.get();
+                byte[] body = value == null ? null : mapper.writeValueAsBytes(value);
+                if (body == null) {
+                    flights.remove(cacheKey, mine);
+                } else {
+                    mine.expiresAt = System.currentTimeMillis() + ttlMs;
+                }
+                mine.result.complete(body);
+                return body;
+            } catch (JsonProcessingException e) {
+                flights.remove(cacheKey, mine);
+                mine.result.completeExceptionally(e);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                flights.remove(cacheKey, mine);
+                mine.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static byte[] await(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Flight {
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        // Set before the result completes; entries still loading never expire.
+        volatile long expiresAt = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,200 @@
+package com.rural.sports.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard counts kept up to date by the write paths instead of being computed per request.
+ * <p>
+ * Each count is a LongAdder, so concurrent writers do not contend on one field. Services report
+ * changes through {@link #increment}, {@link #decrement} and {@link #move}; inside a transaction
+ * the change is applied only after commit. Because a counter can still drift (writes outside the
+ * application, a crash between commit and update), all groups are recomputed with aggregate SQL
+ * at startup and on a schedule. Counts changed on other nodes are recomputed the same way, after
+ * the {@link InvalidationBus} reports the change.
+ */
+@Service
+@Lazy(false)
+public class StatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsService.class);
+
+    public static final String MATERIALS_BY_STATUS = "materialsByStatus";
+    public static final String MATERIALS_BY_TYPE = "materialsByType";
+    public static final String EVENTS_BY_STATUS = "eventsByStatus";
+    public static final String USERS_BY_VILLAGE = "usersByVillage";
+    public static final String USERS_BY_ROLE = "usersByRole";
+    public static final String USERS_BY_STATUS = "usersByStatus";
+    public static final String INTERACTIONS_BY_TYPE = "interactionsByType";
+    public static final String UNANSWERED_CONSULTS = "unansweredConsults";
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final Map<String, String> RECONCILE_QUERIES = new LinkedHashMap<>();
+
+    static {
+        RECONCILE_QUERIES.put(MATERIALS_BY_STATUS, "SELECT status, COUNT(*) FROM materials WHERE deleted = false GROUP BY status");
+        RECONCILE_QUERIES.put(MATERIALS_BY_TYPE, "SELECT type, COUNT(*) FROM materials WHERE deleted = false GROUP BY type");
+        RECONCILE_QUERIES.put(EVENTS_BY_STATUS, "SELECT status, COUNT(*) FROM events WHERE deleted = false GROUP BY status");
+        RECONCILE_QUERIES.put(USERS_BY_VILLAGE, "SELECT village, COUNT(*) FROM users GROUP BY village");
+        RECONCILE_QUERIES.put(USERS_BY_ROLE, "SELECT role, COUNT(*) FROM users GROUP BY role");
+        RECONCILE_QUERIES.put(USERS_BY_STATUS, "SELECT status, COUNT(*) FROM users GROUP BY status");
+        RECONCILE_QUERIES.put(INTERACTIONS_BY_TYPE, "SELECT type, COUNT(*) FROM interaction WHERE deleted = false GROUP BY type");
+        RECONCILE_QUERIES.put(UNANSWERED_CONSULTS, "SELECT 'CONSULT', COUNT(*) FROM interaction "
+                + "WHERE deleted = false AND type = 'CONSULT' AND reply_content IS NULL");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private final Map<String, Map<String, LongAdder>> groups = new ConcurrentHashMap<>();
+
+    // Set when another node reports a change; counts are then recomputed on the next check.
+    private final AtomicBoolean remoteChanges = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        for (String type : new String[]{InvalidationBus.USER, InvalidationBus.EVENT, InvalidationBus.MATERIAL}) {
+            invalidationBus.subscribe(type, ids -> remoteChanges.set(true));
+        }
+    }
+
+    public void increment(String group, String key) {
+        add(group, key, 1);
+    }
+
+    public void decrement(String group, String key) {
+        add(group, key, -1);
+    }
+
+    /**
+     * Moves one item from one bucket of a group to another, e.g. a material from IN_STOCK to BORROWED.
+     */
+    public void move(String group, String from, String to) {
+        if (from == null ? to == null : from.equals(to)) {
+            return;
+        }
+        add(group, from, -1);
+        add(group, to, 1);
+    }
+
+    public void add(String group, String key, long delta) {
+        String bucket = key == null ? UNKNOWN : key;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter(group, bucket).add(delta);
+                }
+            });
+        } else {
+            counter(group, bucket).add(delta);
+        }
+    }
+
+    public long get(String group, String key) {
+        Map<String, LongAdder> counters = groups.get(group);
+        LongAdder counter = counters == null ? null : counters.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Snapshot of every group plus the derived figures shown on the dashboard.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String group : RECONCILE_QUERIES.keySet()) {
+            Map<String, Long> values = new TreeMap<>();
+            Map<String, LongAdder> counters = groups.get(group);
+            if (counters != null) {
+                counters.forEach((key, counter) -> {
+                    long value = counter.sum();
+                    if (value != 0) {
+                        values.put(key, value);
+                    }
+                });
+            }
+            result.put(group, values);
+        }
+
+        long borrowed = get(MATERIALS_BY_STATUS, "BORROWED");
+        long inStock = get(MATERIALS_BY_STATUS, "IN_STOCK");
+        result.put("borrowRate", borrowed + inStock == 0 ? 0.0 : (double) borrowed / (borrowed + inStock));
+
+        Map<String, Long> moderation = new LinkedHashMap<>();
+        moderation.put("pendingUsers", get(USERS_BY_STATUS, "PENDING"));
+        moderation.put("pendingMaterials", get(MATERIALS_BY_STATUS, "PENDING"));
+        moderation.put("unansweredConsults", get(UNANSWERED_CONSULTS, "CONSULT"));
+        result.put("moderation", moderation);
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${statistics.reconcile-interval-ms:600000}", fixedDelayString = "${statistics.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        for (Map.Entry<String, String> query : RECONCILE_QUERIES.entrySet()) {
+            // The counters stay in place and are corrected by (database - value before the query),
+            // so increments applied while the query runs are kept rather than overwritten. One that
+            // committed before the query but was applied after the snapshot is counted twice until
+            // the next reconcile.
+            Map<String, LongAdder> counters = groups.computeIfAbsent(query.getKey(), g -> new ConcurrentHashMap<>());
+            Map<String, Long> before = new HashMap<>();
+            counters.forEach((key, counter) -> before.put(key, counter.sum()));
+            Map<String, Long> fresh = new HashMap<>();
+            jdbcTemplate.query(query.getValue(), rs -> {
+                String key = rs.getString(1);
+                fresh.put(key == null ? UNKNOWN : key, rs.getLong(2));
+            });
+            Set<String> keys = new HashSet<>(before.keySet());
+            keys.addAll(fresh.keySet());
+            for (String key : keys) {
+                long delta = fresh.getOrDefault(key, 0L) - before.getOrDefault(key, 0L);
+                if (delta != 0) {
+                    counter(query.getKey(), key).add(delta);
+                }
+            }
+        }
+        log.debug("Statistics reconciled against the database");
+    }
+
+    /**
+     * Recomputes the counts after writes on other nodes, at most once per statistics.remote-reconcile-delay-ms.
+     */
+    @Scheduled(fixedDelayString = "${statistics.remote-reconcile-delay-ms:2000}")
+    public void reconcileRemoteChanges() {
+        if (remoteChanges.getAndSet(false)) {
+            reconcile();
+        }
+    }
+
+    private LongAdder counter(String group, String key) {
+        return groups.computeIfAbsent(group, g -> new ConcurrentHashMap<>()).computeIfAbsent(key, k -> new LongAdder());
+    }
+}
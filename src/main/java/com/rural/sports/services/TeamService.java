@@ -1,5 +1,6 @@
 package com.rural.sports.services;
 
+import com.rural.sports.models.ChangeSet;
 import com.rural.sports.models.Team;
 import com.rural.sports.repositories.TeamRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,27 +14,83 @@ public class TeamService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
     public List<Team> getAllTeams() {
         return teamRepository.findAll();
     }
 
     public Team getTeamById(Long id) {
-        return teamRepository.findById(id).orElse(null);
+        return teamRepository.findWithMembersById(id).orElse(null);
     }
 
     public Team createTeam(Team team) {
-        return teamRepository.save(team);
+        Team saved = teamRepository.save(team);
+        if (saved.getEvent() != null) {
+            leaderboardService.addTeam(saved.getEvent().getId(), saved.getId(), saved.getName());
+        }
+        invalidationBus.publish(InvalidationBus.TEAM, saved.getId());
+        return saved;
     }
 
     public Team updateTeam(Long id, Team team) {
-        if (teamRepository.existsById(id)) {
+        Team existing = teamRepository.findById(id).orElse(null);
+        if (existing != null) {
+            Long previousEventId = existing.getEvent() == null ? null : existing.getEvent().getId();
             team.setId(id);
-            return teamRepository.save(team);
+            Team saved = teamRepository.save(team);
+            responseCache.invalidate("team:" + id);
+            Long eventId = saved.getEvent() == null ? null : saved.getEvent().getId();
+            if (previousEventId != null && !previousEventId.equals(eventId)) {
+                leaderboardService.removeTeam(previousEventId, id);
+            }
+            if (eventId != null) {
+                leaderboardService.addTeam(eventId, id, saved.getName());
+            }
+            invalidationBus.publish(InvalidationBus.TEAM, id);
+            return saved;
         }
         return null;
     }
 
     public void deleteTeam(Long id) {
-        teamRepository.deleteById(id);
+        Team team = teamRepository.findById(id).orElse(null);
+        if (team != null) {
+            softDelete(team);
+        }
+    }
+
+    /**
+     * Deletes the teams of an event that is being deleted, in the caller's transaction.
+     */
+    public void deleteTeamsOfEvent(Long eventId) {
+        for (Team team : teamRepository.findByEventId(eventId)) {
+            softDelete(team);
+        }
+    }
+
+    private void softDelete(Team team) {
+        // Soft delete so offline clients receive a tombstone through /changes.
+        team.setDeleted(true);
+        teamRepository.save(team);
+        if (team.getEvent() != null) {
+            leaderboardService.removeTeam(team.getEvent().getId(), team.getId());
+        }
+        responseCache.invalidate("team:" + team.getId());
+        invalidationBus.publish(InvalidationBus.TEAM, team.getId());
+    }
+
+    public ChangeSet<Team> getChanges(String since, int limit) {
+        return changeSequence.changesSince(since, limit, teamRepository::findChanges, Team::getUpdateSeq);
     }
 }
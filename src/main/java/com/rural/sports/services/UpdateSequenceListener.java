@@ -0,0 +1,25 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.SyncTracked;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * JPA listener that stamps sync-tracked entities with a fresh change sequence value on every
+ * insert and update. Hibernate obtains it through Spring, so the sequence is injected.
+ */
+public class UpdateSequenceListener {
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        if (entity instanceof SyncTracked) {
+            ((SyncTracked) entity).setUpdateSeq(changeSequence.next());
+        }
+    }
+}
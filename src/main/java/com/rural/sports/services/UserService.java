@@ -5,6 +5,7 @@ import com.rural.sports.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,7 +14,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
@@ -22,6 +23,15 @@ public class UserService implements UserDetailsService {
     @Lazy
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private MaterialFacetIndex materialFacetIndex;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -32,19 +42,45 @@ public class UserService implements UserDetailsService {
 
     public User createUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        countUser(saved, 1);
+        invalidationBus.publish(InvalidationBus.USER, saved.getId());
+        return saved;
     }
 
     public User updateUser(Long id, User user) {
-        if (userRepository.existsById(id)) {
+        User existing = userRepository.findById(id).orElse(null);
+        if (existing != null) {
+            String village = existing.getVillage();
+            String role = existing.getRole();
+            String status = existing.getStatus();
             user.setId(id);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            statisticsService.move(StatisticsService.USERS_BY_VILLAGE, village, saved.getVillage());
+            statisticsService.move(StatisticsService.USERS_BY_ROLE, role, saved.getRole());
+            statisticsService.move(StatisticsService.USERS_BY_STATUS, status, saved.getStatus());
+            if (village == null ? saved.getVillage() != null : !village.equals(saved.getVillage())) {
+                materialFacetIndex.updateDonorVillage(id, saved.getVillage());
+            }
+            invalidationBus.publish(InvalidationBus.USER, id);
+            return saved;
         }
         return null;
     }
 
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        User existing = userRepository.findById(id).orElse(null);
+        if (existing != null) {
+            userRepository.delete(existing);
+            countUser(existing, -1);
+            invalidationBus.publish(InvalidationBus.USER, id);
+        }
+    }
+
+    private void countUser(User user, long delta) {
+        statisticsService.add(StatisticsService.USERS_BY_VILLAGE, user.getVillage(), delta);
+        statisticsService.add(StatisticsService.USERS_BY_ROLE, user.getRole(), delta);
+        statisticsService.add(StatisticsService.USERS_BY_STATUS, user.getStatus(), delta);
     }
 
     public User findByUsername(String username) {
@@ -59,4 +95,17 @@ public class UserService implements UserDetailsService {
         }
         return user;
     }
+
+    /**
+     * Stores a password rehashed after a successful login because its bcrypt cost differs from the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User existing = userRepository.findByUsername(user.getUsername());
+        if (existing == null) {
+            return user;
+        }
+        existing.setPassword(newPassword);
+        return userRepository.save(existing);
+    }
 }
@@ -0,0 +1,124 @@
+package com.rural.sports.tools;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test: each of N clients sends a GET, waits for the answer and sends the next,
+ * for the given number of seconds. Prints throughput and latency percentiles. Used by
+ * scripts/thread-mode-benchmark.sh to compare platform and virtual request threads.
+ * With the path /api/login every request is a login with the given credentials instead
+ * (scripts/login-burst-benchmark.sh).
+ * <pre>java -cp app.jar -Dloader.main=com.rural.sports.tools.HttpLoadTest org.springframework.boot.loader.PropertiesLauncher \
+ *     http://localhost:8080 /api/users/me 500 30 username password</pre>
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("usage: HttpLoadTest <base-url> <path> <clients> <seconds> [username password]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        URI target = URI.create(baseUrl + args[1]);
+        int clients = Integer.parseInt(args[2]);
+        long durationNanos = Duration.ofSeconds(Long.parseLong(args[3])).toNanos();
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        boolean loginLoad = "/api/login".equals(args[1]);
+        if (args.length >= 6 && !loginLoad) {
+            HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/login"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("username=" + args[4] + "&password=" + args[5]))
+                    .build();
+            int status = http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status >= 400) {
+                System.err.println("login failed with HTTP " + status);
+                System.exit(1);
+            }
+        }
+
+        HttpRequest request = loginLoad
+                ? HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("username=" + args[4] + "&password=" + args[5]))
+                        .build()
+                : HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60)).GET().build();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+
+        for (int c = 0; c < clients; c++) {
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            int client = c;
+            Thread thread = new Thread(() -> {
+                long[] own = samples;
+                int n = 0;
+                try {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n == own.length) {
+                            own = Arrays.copyOf(own, n * 2);
+                            latencies.set(client, own);
+                        }
+                        own[n++] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    counts[client] = n;
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("clients=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms p99.9=%.1f ms max=%.1f ms%n",
+                clients, total, errors.get(), total / seconds,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                all.length == 0 ? 0.0 : all[all.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,29 @@
+package com.rural.sports.tools;
+
+import com.rural.sports.models.MaterialAuditState;
+import com.rural.sports.services.MaterialAuditLog;
+
+import java.nio.file.Paths;
+
+/**
+ * Rebuilds current material state from the audit log and prints it as CSV.
+ * Segments are only read, so it is safe to run against the live log directory; records still
+ * being written by the application may be missing from the output:
+ * <pre>java -cp app.jar -Dloader.main=com.rural.sports.tools.MaterialAuditReplay org.springframework.boot.loader.PropertiesLauncher ./data/material-audit</pre>
+ */
+public class MaterialAuditReplay {
+
+    public static void main(String[] args) throws Exception {
+        String directory = args.length > 0 ? args[0] : "./data/material-audit";
+        System.out.println("materialId,status,donorId,holderId,lastChange");
+        for (MaterialAuditState state : MaterialAuditLog.replayReadOnly(Paths.get(directory)).values()) {
+            System.out.println(state.getMaterialId() + "," + state.getStatus() + ","
+                    + nullToEmpty(state.getDonorId()) + "," + nullToEmpty(state.getHolderId()) + ","
+                    + state.getLastChange().toInstant());
+        }
+    }
+
+    private static String nullToEmpty(Long value) {
+        return value == null ? "" : value.toString();
+    }
+}
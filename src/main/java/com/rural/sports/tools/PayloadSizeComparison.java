@@ -0,0 +1,134 @@
+package com.rural.sports.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rural.sports.models.Event;
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import com.rural.sports.models.Material;
+import com.rural.sports.models.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the encoded size and encode time of event, material and interaction lists as
+ * JSON and CBOR, each with and without gzip, for list sizes seen in practice.
+ * <pre>java -cp app.jar -Dloader.main=com.rural.sports.tools.PayloadSizeComparison org.springframework.boot.loader.PropertiesLauncher</pre>
+ */
+public class PayloadSizeComparison {
+
+    private static final int[] LIST_SIZES = {10, 50, 200, 1000};
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+        System.out.printf("%-13s %5s %10s %10s %10s %10s %10s %10s%n",
+                "payload", "rows", "json B", "json+gz B", "cbor B", "cbor+gz B", "json us", "cbor us");
+        for (int size : LIST_SIZES) {
+            compare("events", size, events(size), json, cbor);
+            compare("materials", size, materials(size), json, cbor);
+            compare("interactions", size, interactions(size), json, cbor);
+        }
+    }
+
+    private static void compare(String name, int size, List<?> payload, ObjectMapper json, ObjectMapper cbor) throws IOException {
+        byte[] jsonBytes = json.writeValueAsBytes(payload);
+        byte[] cborBytes = cbor.writeValueAsBytes(payload);
+        System.out.printf("%-13s %5d %10d %10d %10d %10d %10.1f %10.1f%n", name, size,
+                jsonBytes.length, gzip(jsonBytes).length, cborBytes.length, gzip(cborBytes).length,
+                encodeMicros(json, payload), encodeMicros(cbor, payload));
+    }
+
+    private static double encodeMicros(ObjectMapper mapper, Object payload) throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        return (System.nanoTime() - start) / 1000.0 / ROUNDS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("villager" + id);
+        user.setRole(id % 10 == 0 ? "ORGANIZER" : "VILLAGER");
+        user.setStatus("APPROVED");
+        user.setVillage("Village " + (id % 12));
+        user.setSportPreference(id % 2 == 0 ? "Basketball" : "Table tennis");
+        user.setContactInfo("1380000" + (1000 + id % 9000));
+        return user;
+    }
+
+    private static List<Event> events(int size) {
+        List<Event> events = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Event event = new Event();
+            event.setId(i);
+            event.setName("Township sports day #" + i);
+            event.setDescription("Relay, tug of war and basketball for all villages of the township.");
+            event.setRules("Teams of five, registration closes two days before the event.");
+            event.setStartTime(new Date(1_780_000_000_000L + i * 86_400_000L));
+            event.setEndTime(new Date(1_780_000_000_000L + i * 86_400_000L + 28_800_000L));
+            event.setLocation("Village " + (i % 12) + " school ground");
+            event.setStatus("OPEN");
+            event.setTheme("Harvest festival");
+            event.setOrganizer(user(i % 10 * 10));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static List<Material> materials(int size) {
+        String[] types = {"Basketball", "Football", "Jersey", "Skipping rope"};
+        List<Material> materials = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Material material = new Material();
+            material.setId(i);
+            material.setName(types[(int) (i % types.length)] + " " + i);
+            material.setType(types[(int) (i % types.length)]);
+            material.setConditionLevel((int) (i % 5) + 1);
+            material.setStatus(i % 3 == 0 ? "BORROWED" : "IN_STOCK");
+            material.setDonor(user(i % 40));
+            material.setCurrentHolder(i % 3 == 0 ? user(i % 50) : null);
+            materials.add(material);
+        }
+        return materials;
+    }
+
+    private static List<Interaction> interactions(int size) {
+        List<Interaction> interactions = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Interaction interaction = new Interaction();
+            interaction.setId(i);
+            interaction.setUserId(i % 40);
+            interaction.setUserName("villager" + (i % 40));
+            interaction.setUserRole("VILLAGER");
+            interaction.setType(i % 4 == 0 ? InteractionType.NOTICE : InteractionType.BOARD);
+            interaction.setTitle("Training time for Saturday match " + i);
+            interaction.setContent("Does anyone know when the basketball court is free on Saturday morning? We would like to practise.");
+            interaction.setCreateTime(LocalDateTime.of(2026, 5, 1, 8, 0).plusMinutes(i * 7));
+            interactions.add(interaction);
+        }
+        return interactions;
+    }
+}
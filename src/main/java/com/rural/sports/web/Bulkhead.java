@@ -0,0 +1,83 @@
+package com.rural.sports.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit for one class of requests. Up to maxConcurrent run at once; up to maxQueue
+ * more wait (first come, first served) for at most maxWaitMs. Anything beyond that is rejected
+ * straight away, so a burst in one class cannot tie up the threads and connections of another.
+ * maxQueue=0 rejects as soon as all permits are taken.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, long maxWaitMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Returns true when the caller may proceed; it must then call {@link #release()}.
+     */
+    public boolean tryEnter() throws InterruptedException {
+        // Timed tryAcquire honors fairness, so a newcomer cannot overtake requests already queued.
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            admitted.increment();
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                admitted.increment();
+                return true;
+            }
+            timedOut.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxConcurrent", maxConcurrent);
+        metrics.put("maxQueue", maxQueue);
+        metrics.put("maxWaitMs", maxWaitMs);
+        metrics.put("active", maxConcurrent - permits.availablePermits());
+        metrics.put("waiting", waiting.get());
+        metrics.put("admitted", admitted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        return metrics;
+    }
+}
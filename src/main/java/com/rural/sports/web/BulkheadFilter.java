@@ -0,0 +1,109 @@
+package com.rural.sports.web;
+
+import com.rural.sports.config.ReportingDataSourceConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Separates heavy admin reads from the villager write paths.
+ * <p>
+ * Full-table lists, exports and bulk imports go through the "reporting" bulkhead and, when
+ * bulkhead.reporting.pool-size > 0, use their own small connection pool. Borrow, return, event
+ * registration and offline batch sync go through the "transactional" bulkhead. A request that
+ * cannot get into its bulkhead gets 503 with Retry-After. Counters are served by GET /api/bulkheads.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public static final String REPORTING = "reporting";
+    public static final String TRANSACTIONAL = "transactional";
+
+    private static final String[] REPORTING_PATHS = {
+            "GET /api/users", "GET /api/materials", "GET /api/export/*", "POST /api/materials/import"};
+
+    private static final String[] TRANSACTIONAL_PATHS = {
+            "POST /api/materials/*/borrow", "POST /api/materials/*/return", "POST /api/events/*/register", "POST /api/sync/batch"};
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    public BulkheadFilter(@Value("${bulkhead.reporting.max-concurrent:2}") int reportingConcurrent,
+                          @Value("${bulkhead.reporting.max-queue:10}") int reportingQueue,
+                          @Value("${bulkhead.reporting.max-wait-ms:5000}") long reportingWaitMs,
+                          @Value("${bulkhead.transactional.max-concurrent:50}") int transactionalConcurrent,
+                          @Value("${bulkhead.transactional.max-queue:200}") int transactionalQueue,
+                          @Value("${bulkhead.transactional.max-wait-ms:1000}") long transactionalWaitMs) {
+        bulkheads.put(REPORTING, new Bulkhead(REPORTING, reportingConcurrent, reportingQueue, reportingWaitMs));
+        bulkheads.put(TRANSACTIONAL, new Bulkhead(TRANSACTIONAL, transactionalConcurrent, transactionalQueue, transactionalWaitMs));
+    }
+
+    public Map<String, Map<String, Object>> metrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        bulkheads.forEach((name, bulkhead) -> metrics.put(name, bulkhead.metrics()));
+        return metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String name = classify(request);
+        Bulkhead bulkhead = bulkheads.get(name);
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            response.setHeader("Retry-After", "5");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many " + name + " requests, try again shortly");
+            return;
+        }
+        if (REPORTING.equals(name)) {
+            ReportingDataSourceConfig.useReportingPool(true);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReportingDataSourceConfig.useReportingPool(false);
+            bulkhead.release();
+        }
+    }
+
+    private String classify(HttpServletRequest request) {
+        String route = request.getMethod() + " " + request.getRequestURI().substring(request.getContextPath().length());
+        if (matchesAny(route, REPORTING_PATHS)) {
+            return REPORTING;
+        }
+        if (matchesAny(route, TRANSACTIONAL_PATHS)) {
+            return TRANSACTIONAL;
+        }
+        return null;
+    }
+
+    private boolean matchesAny(String route, String[] patterns) {
+        for (String pattern : patterns) {
+            if (matcher.match(pattern, route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.rural.sports.web;
+
+import com.rural.sports.models.IdempotencyRecord;
+import com.rural.sports.services.IdempotencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Honors the Idempotency-Key header on POST requests to the material, event, interaction and sync APIs.
+ * A repeated key gets the stored response replayed; a key that is still executing gets 409.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private static final String[] PATHS = {"/api/materials", "/api/events", "/api/interactions", "/api/sync"};
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String prefix : PATHS) {
+            if (path.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (request.getHeader(HEADER).length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key is too long");
+            return;
+        }
+        String key = scopedKey(request);
+
+        IdempotencyRecord stored = idempotencyService.find(key);
+        if (stored != null) {
+            replay(stored, response);
+            return;
+        }
+        if (!idempotencyService.begin(key)) {
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is still being processed");
+            return;
+        }
+        // The first request may have completed between find and begin; check again while holding the key.
+        stored = idempotencyService.find(key);
+        if (stored != null) {
+            idempotencyService.abandon(key);
+            replay(stored, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean recorded = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (status >= 200 && status < 300) {
+                idempotencyService.complete(key, status, wrapper.getContentType(), wrapper.getContentAsByteArray());
+                recorded = true;
+            }
+        } finally {
+            if (!recorded) {
+                idempotencyService.abandon(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyRecord stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatusCode());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        byte[] body = stored.getBody();
+        if (body != null) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    // Keys are scoped per user and endpoint so one client cannot replay another's response.
+    private String scopedKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String user = auth != null ? auth.getName() : "anonymous";
+        return user + "|" + request.getMethod() + " " + request.getRequestURI() + "|" + request.getHeader(HEADER);
+    }
+}
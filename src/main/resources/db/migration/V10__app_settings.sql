@@ -0,0 +1,8 @@
+-- Values an application node works out once and every node then shares, e.g. the bcrypt cost
+-- calibrated on first start (bcrypt-cost).
+
+CREATE TABLE IF NOT EXISTS app_settings (
+    name          VARCHAR(64) NOT NULL,
+    setting_value VARCHAR(255) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
@@ -0,0 +1,127 @@
+-- Baseline schema, matching what hibernate ddl-auto=update used to create.
+-- IF NOT EXISTS lets databases created by ddl-auto adopt the migrations unchanged.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                       BIGINT       NOT NULL AUTO_INCREMENT,
+    username                 VARCHAR(255),
+    password                 VARCHAR(255),
+    role                     VARCHAR(255),
+    status                   VARCHAR(255),
+    village                  VARCHAR(255),
+    sport_preference         VARCHAR(255),
+    contact_info             VARCHAR(255),
+    organization_certificate VARCHAR(255),
+    responsible_area         VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS events (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    name         VARCHAR(255),
+    description  VARCHAR(255),
+    rules        VARCHAR(255),
+    start_time   DATETIME(6),
+    end_time     DATETIME(6),
+    location     VARCHAR(255),
+    status       VARCHAR(255),
+    theme        VARCHAR(255),
+    organizer_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_events_organizer FOREIGN KEY (organizer_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS materials (
+    id                BIGINT NOT NULL AUTO_INCREMENT,
+    name              VARCHAR(255),
+    type              VARCHAR(255),
+    condition_level   INTEGER,
+    status            VARCHAR(255),
+    donor_id          BIGINT,
+    current_holder_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_materials_donor FOREIGN KEY (donor_id) REFERENCES users (id),
+    CONSTRAINT fk_materials_holder FOREIGN KEY (current_holder_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS teams (
+    id       BIGINT NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255),
+    event_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_teams_event FOREIGN KEY (event_id) REFERENCES events (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS team_members (
+    team_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_team_members_team FOREIGN KEY (team_id) REFERENCES teams (id),
+    CONSTRAINT fk_team_members_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS donations (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    material_type VARCHAR(255),
+    `condition`   VARCHAR(255),
+    status        VARCHAR(255),
+    donator_id    BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_donations_donator FOREIGN KEY (donator_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS loans (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    material_type VARCHAR(255),
+    return_time   DATETIME(6),
+    status        VARCHAR(255),
+    borrower_id   BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_loans_borrower FOREIGN KEY (borrower_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS interaction (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT,
+    user_name     VARCHAR(255),
+    user_role     VARCHAR(255),
+    type          VARCHAR(255),
+    title         VARCHAR(255),
+    content       TEXT,
+    reply_content VARCHAR(255),
+    create_time   DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS event_registrations (
+    id               BIGINT NOT NULL AUTO_INCREMENT,
+    event_id         BIGINT,
+    user_id          BIGINT,
+    health_condition VARCHAR(255),
+    registered_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_event_registrations_event_user UNIQUE (event_id, user_id),
+    CONSTRAINT fk_event_registrations_event FOREIGN KEY (event_id) REFERENCES events (id),
+    CONSTRAINT fk_event_registrations_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGINT NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255),
+    subject         VARCHAR(255),
+    body            TEXT,
+    status          VARCHAR(255),
+    attempts        INTEGER,
+    next_attempt_at DATETIME(6),
+    created_at      DATETIME(6),
+    sent_at         DATETIME(6),
+    last_error      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    record_key   VARCHAR(700) NOT NULL,
+    status_code  INTEGER,
+    content_type VARCHAR(255),
+    body         LONGBLOB,
+    created_at   DATETIME(6),
+    PRIMARY KEY (record_key)
+) ENGINE = InnoDB;
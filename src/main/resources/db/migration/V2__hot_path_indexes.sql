@@ -0,0 +1,30 @@
+-- Indexes for the lookups and filters the services run on every request.
+
+-- Login and /api/users/me
+CREATE UNIQUE INDEX ux_users_username ON users (username);
+
+-- Material lists filtered by status and type, and "what does this user hold / donate"
+CREATE INDEX idx_materials_status_type ON materials (status, type);
+CREATE INDEX idx_materials_type ON materials (type);
+CREATE INDEX idx_materials_current_holder ON materials (current_holder_id);
+CREATE INDEX idx_materials_donor ON materials (donor_id);
+
+-- Event lists by status ordered by start time, and upcoming events by date
+CREATE INDEX idx_events_status_start_time ON events (status, start_time);
+CREATE INDEX idx_events_start_time ON events (start_time);
+
+-- Board / notice / consult lists by type, newest first, and a user's own posts
+CREATE INDEX idx_interaction_type_create_time ON interaction (type, create_time);
+CREATE INDEX idx_interaction_user ON interaction (user_id);
+
+-- Team membership in both directions
+CREATE INDEX idx_team_members_team_user ON team_members (team_id, user_id);
+CREATE INDEX idx_team_members_user_team ON team_members (user_id, team_id);
+CREATE INDEX idx_teams_event ON teams (event_id);
+
+-- A user's registrations (event lookups use the unique key)
+CREATE INDEX idx_event_registrations_user ON event_registrations (user_id);
+
+-- Dispatcher poll and idempotency purge
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,19 @@
+-- Delta sync: every synced row carries the change sequence value of its last write, and
+-- deletes become tombstones. Existing rows start at 1 so a first sync (since=0) sees them.
+
+ALTER TABLE events ADD COLUMN update_seq BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE events ADD COLUMN deleted BIT(1) NOT NULL DEFAULT 0;
+
+ALTER TABLE materials ADD COLUMN update_seq BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE materials ADD COLUMN deleted BIT(1) NOT NULL DEFAULT 0;
+
+ALTER TABLE teams ADD COLUMN update_seq BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE teams ADD COLUMN deleted BIT(1) NOT NULL DEFAULT 0;
+
+ALTER TABLE interaction ADD COLUMN update_seq BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE interaction ADD COLUMN deleted BIT(1) NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_events_update_seq ON events (update_seq);
+CREATE INDEX idx_materials_update_seq ON materials (update_seq);
+CREATE INDEX idx_teams_update_seq ON teams (update_seq);
+CREATE INDEX idx_interaction_update_seq ON interaction (update_seq);
@@ -0,0 +1,14 @@
+-- View and like counts of notices. Counts are accumulated in memory and added here in batches;
+-- each batch records its id in counter_flushes in the same transaction, so a batch retried
+-- after an unclear commit is applied only once.
+
+ALTER TABLE interaction ADD COLUMN view_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE interaction ADD COLUMN like_count BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS counter_flushes (
+    flush_id   VARCHAR(36) NOT NULL,
+    applied_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (flush_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_counter_flushes_applied_at ON counter_flushes (applied_at);
@@ -0,0 +1,19 @@
+-- Match results within an event. Leaderboards are kept in memory and rebuilt from this table.
+
+CREATE TABLE IF NOT EXISTS matches (
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    event_id     BIGINT,
+    home_team_id BIGINT,
+    away_team_id BIGINT,
+    home_score   INT,
+    away_score   INT,
+    status       VARCHAR(255),
+    played_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_matches_event FOREIGN KEY (event_id) REFERENCES events (id),
+    CONSTRAINT fk_matches_home_team FOREIGN KEY (home_team_id) REFERENCES teams (id),
+    CONSTRAINT fk_matches_away_team FOREIGN KEY (away_team_id) REFERENCES teams (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_matches_event ON matches (event_id);
+CREATE INDEX idx_matches_status ON matches (status);
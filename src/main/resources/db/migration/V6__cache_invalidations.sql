@@ -0,0 +1,13 @@
+-- Cache invalidations broadcast between application nodes. Each row is one batch of entity keys
+-- (e.g. "material:12,user:3") published by one node; other nodes poll for rows after the last id
+-- they saw. Rows are purged after a retention period.
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    node_id    VARCHAR(36) NOT NULL,
+    cache_keys TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_cache_invalidations_created_at ON cache_invalidations (created_at);
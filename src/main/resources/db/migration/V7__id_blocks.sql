@@ -0,0 +1,12 @@
+-- Id ranges handed out to application nodes. A node reserves a block by adding the block size to
+-- next_id and then assigns the ids below the new value itself, so ids assigned before the row
+-- reaches the database (write-behind posts) never collide with ids of other writers.
+-- Interaction ids come from here from now on; the column keeps AUTO_INCREMENT only for old rows.
+
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name    VARCHAR(64) NOT NULL,
+    next_id BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_blocks (name, next_id) SELECT 'interaction', COALESCE(MAX(id), 0) + 1 FROM interaction;
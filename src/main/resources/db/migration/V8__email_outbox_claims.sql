@@ -0,0 +1,5 @@
+-- Dispatchers on several nodes poll the same outbox. A dispatcher claims due rows by setting them to
+-- SENDING with its own claim token and a lease in next_attempt_at; only rows that carry its token
+-- afterwards are sent. Rows of a node that died mid-send become due again when the lease runs out.
+
+ALTER TABLE email_outbox ADD COLUMN claimed_by VARCHAR(36) NULL;
@@ -0,0 +1,16 @@
+-- The update_seq counter behind delta sync, shared by all application nodes. A writer increments
+-- seq_value inside its own transaction and keeps the row locked until it commits, so values are
+-- committed in the order they are handed out and the committed seq_value is a safe /changes
+-- watermark on every node.
+
+CREATE TABLE IF NOT EXISTS change_sequence (
+    id        INT NOT NULL,
+    seq_value BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO change_sequence (id, seq_value) SELECT 1, GREATEST(
+    (SELECT COALESCE(MAX(update_seq), 0) FROM events),
+    (SELECT COALESCE(MAX(update_seq), 0) FROM materials),
+    (SELECT COALESCE(MAX(update_seq), 0) FROM teams),
+    (SELECT COALESCE(MAX(update_seq), 0) FROM interaction));
@@ -0,0 +1,75 @@
+package com.rural.sports.controllers;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventDeletionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletingAnEventDeletesItsTeams() throws Exception {
+        String since = read(get("/api/teams/changes"), "$.token");
+        Number eventId = read(post("/api/events").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Relay\",\"status\":\"OPEN\"}"), "$.id");
+        Number teamId = read(post("/api/teams").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Relay team\",\"event\":{\"id\":" + eventId + "}}"), "$.id");
+
+        mockMvc.perform(delete("/api/events/" + eventId).with(user("alice"))).andExpect(status().isOk());
+
+        List<Number> listed = read(get("/api/teams"), "$[*].id");
+        assertThat(listed).doesNotContain(teamId);
+        mockMvc.perform(get("/api/teams/" + teamId).with(user("alice")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        List<Boolean> tombstone = read(get("/api/teams/changes").param("since", since),
+                "$.changes[?(@.id == " + teamId + ")].deleted");
+        assertThat(tombstone).containsExactly(true);
+    }
+
+    @Test
+    void teamOfAHiddenEventStillLoads() throws Exception {
+        Number eventId = read(post("/api/events").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"High jump\",\"status\":\"OPEN\"}"), "$.id");
+        Number teamId = read(post("/api/teams").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Jumpers\",\"event\":{\"id\":" + eventId + "}}"), "$.id");
+        // A row written before deletes cascaded to teams.
+        jdbcTemplate.update("UPDATE events SET deleted = true WHERE id = ?", eventId.longValue());
+
+        List<Object> events = read(get("/api/teams"), "$[?(@.id == " + teamId + ")].event");
+        assertThat(events).containsExactly((Object) null);
+        mockMvc.perform(get("/api/teams/changes").with(user("alice"))).andExpect(status().isOk());
+    }
+
+    private <T> T read(MockHttpServletRequestBuilder request, String path) throws Exception {
+        String body = mockMvc.perform(request.with(user("alice")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, path);
+    }
+}
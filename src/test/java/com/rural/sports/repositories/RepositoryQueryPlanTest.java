@@ -0,0 +1,141 @@
+package com.rural.sports.repositories;
+
+import com.rural.sports.daos.InteractionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every query method declared on the repositories, captures the SQL Hibernate generates for
+ * it and EXPLAINs that SQL on H2. A filtered statement that scans a table which has secondary
+ * indexes means the query misses them; unfiltered reads (findAll) are expected to scan.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.rural.sports.repositories.CapturingStatementInspector")
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* public\\.(\\w+)\\.tableScan");
+
+    private static final Class<?>[] REPOSITORIES = {
+            EmailOutboxRepository.class, EventRegistrationRepository.class, EventRepository.class,
+            IdempotencyRecordRepository.class, MatchRepository.class, MaterialRepository.class,
+            TeamRepository.class, UserRepository.class, InteractionRepository.class
+    };
+
+    @Autowired
+    private Map<String, JpaRepository<?, ?>> repositories;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void repositoryQueriesUseAnIndex() throws Exception {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        for (Class<?> type : REPOSITORIES) {
+            Object repository = repositories.values().stream().filter(type::isInstance).findFirst().orElseThrow();
+            for (Method method : type.getDeclaredMethods()) {
+                CapturingStatementInspector.STATEMENTS.clear();
+                transactionTemplate.executeWithoutResult(tx -> {
+                    invoke(repository, method);
+                    tx.setRollbackOnly();
+                });
+                statements.put(type.getSimpleName() + "." + method.getName(), new ArrayList<>(CapturingStatementInspector.STATEMENTS));
+            }
+        }
+        assertThat(statements.values()).allSatisfy(sql -> assertThat(sql).isNotEmpty());
+
+        Set<String> indexedTables = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT LOWER(table_name) FROM information_schema.indexes "
+                        + "WHERE table_schema = 'public' AND index_type_name <> 'PRIMARY KEY'", String.class));
+        List<String> problems = new ArrayList<>();
+        statements.forEach((query, sqls) -> {
+            for (String sql : sqls) {
+                if (!sql.toLowerCase(Locale.ROOT).contains(" where ")) {
+                    continue;
+                }
+                String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+                Matcher scan = TABLE_SCAN.matcher(plan);
+                while (scan.find()) {
+                    if (indexedTables.contains(scan.group(1))) {
+                        problems.add(query + " scans " + scan.group(1) + ":\n" + plan);
+                    }
+                }
+            }
+        });
+        assertThat(problems).isEmpty();
+    }
+
+    private static void invoke(Object repository, Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sample(types[i]);
+        }
+        try {
+            method.invoke(repository, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(method + " failed", e);
+        }
+    }
+
+    private static Object sample(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType generic = (ParameterizedType) type;
+            if (Collection.class.isAssignableFrom((Class<?>) generic.getRawType())) {
+                return List.of(sample(generic.getActualTypeArguments()[0]));
+            }
+            type = generic.getRawType();
+        }
+        Class<?> raw = (Class<?>) type;
+        if (raw == Long.class || raw == long.class) {
+            return 1L;
+        }
+        if (raw == Integer.class || raw == int.class) {
+            return 10;
+        }
+        if (raw == String.class) {
+            return "x";
+        }
+        if (raw == Date.class) {
+            return new Date();
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+}
@@ -0,0 +1,43 @@
+package com.rural.sports.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BcryptCostTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void calibratedCostIsStoredAndReusedOnLaterStarts() {
+        jdbcTemplate.update("DELETE FROM app_settings WHERE name = 'bcrypt-cost'");
+        AtomicInteger calibrations = new AtomicInteger();
+
+        int first = SecurityConfig.storedCost(jdbcTemplate, () -> 11 + calibrations.getAndIncrement());
+        int second = SecurityConfig.storedCost(jdbcTemplate, () -> 11 + calibrations.getAndIncrement());
+
+        assertThat(first).isEqualTo(11);
+        assertThat(second).isEqualTo(11);
+        assertThat(calibrations).hasValue(1);
+        jdbcTemplate.update("DELETE FROM app_settings WHERE name = 'bcrypt-cost'");
+    }
+
+    @Test
+    void onlyWeakerHashesAreUpgraded() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 0, 1, 1000);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+    }
+}
@@ -0,0 +1,157 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.BatchAction;
+import com.rural.sports.models.BatchActionResult;
+import com.rural.sports.models.Event;
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import com.rural.sports.models.Material;
+import com.rural.sports.models.User;
+import com.rural.sports.repositories.EventRepository;
+import com.rural.sports.repositories.MaterialRepository;
+import com.rural.sports.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "interaction.write-behind.enabled=true")
+@ActiveProfiles("test")
+class BatchActionServiceTest {
+
+    @Autowired
+    private BatchActionService batchActionService;
+
+    @Autowired
+    private InteractionWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User villager;
+
+    @BeforeEach
+    void createVillager() {
+        villager = new User();
+        villager.setUsername("batch-" + UUID.randomUUID());
+        villager.setPassword("secret");
+        villager.setRole("VILLAGER");
+        villager.setStatus("APPROVED");
+        villager = userRepository.save(villager);
+    }
+
+    @Test
+    void overlongPostIsAConflictAndTheRestIsStored() {
+        String title = "batch " + UUID.randomUUID();
+        List<BatchAction> actions = List.of(post(villager.getId(), title), post(villager.getId(), "x".repeat(300)));
+
+        List<BatchActionResult> results = batchActionService.apply(actions, villager.getId());
+
+        assertThat(results).extracting(BatchActionResult::isSuccess).containsExactly(true, false);
+        assertThat(results.get(1).getConflict()).startsWith("title is longer than");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction WHERE title = ?", Long.class, title)).isOne();
+    }
+
+    @Test
+    void databaseErrorFailsOnlyItsAction() {
+        String title = "batch " + UUID.randomUUID();
+        String rejected = "rejected " + UUID.randomUUID();
+        jdbcTemplate.execute("ALTER TABLE interaction ADD CONSTRAINT ck_batch_rejected CHECK (title <> '" + rejected + "')");
+        try {
+            List<BatchActionResult> results = batchActionService.apply(
+                    List.of(post(villager.getId(), title), post(villager.getId(), rejected)), villager.getId());
+
+            assertThat(results).extracting(BatchActionResult::getIndex).containsExactly(0, 1);
+            assertThat(results).extracting(BatchActionResult::isSuccess).containsExactly(true, false);
+            assertThat(results.get(1).getConflict()).isEqualTo("Could not be stored");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction WHERE title = ?", Long.class, title)).isOne();
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction WHERE title = ?", Long.class, rejected)).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE interaction DROP CONSTRAINT ck_batch_rejected");
+        }
+    }
+
+    @Test
+    void onlyTheHolderReturnsAMaterial() {
+        User neighbour = new User();
+        neighbour.setUsername("batch-" + UUID.randomUUID());
+        neighbour.setPassword("secret");
+        neighbour.setRole("VILLAGER");
+        neighbour.setStatus("APPROVED");
+        neighbour = userRepository.save(neighbour);
+        Material ball = new Material();
+        ball.setName("Batch ball");
+        ball.setStatus("BORROWED");
+        ball.setCurrentHolder(villager);
+        ball = materialRepository.save(ball);
+        BatchAction giveBack = new BatchAction();
+        giveBack.setType("RETURN");
+        giveBack.setMaterialId(ball.getId());
+
+        List<BatchActionResult> byNeighbour = batchActionService.apply(List.of(giveBack), neighbour.getId());
+        List<BatchActionResult> byHolder = batchActionService.apply(List.of(giveBack), villager.getId());
+
+        assertThat(byNeighbour).singleElement().satisfies(result -> {
+            assertThat(result.isSuccess()).isFalse();
+            assertThat(result.getConflict()).isEqualTo("Material is held by another user");
+        });
+        assertThat(byHolder).singleElement().satisfies(result -> assertThat(result.isSuccess()).isTrue());
+        assertThat(materialRepository.findById(ball.getId())).get().extracting(Material::getStatus).isEqualTo("IN_STOCK");
+    }
+
+    @Test
+    void postIsStoredBeforeTheBatchReturns() {
+        String title = "batch " + UUID.randomUUID();
+
+        List<BatchActionResult> results = batchActionService.apply(List.of(post(villager.getId(), title)), villager.getId());
+
+        assertThat(results).singleElement().satisfies(result -> assertThat(result.isSuccess()).isTrue());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction WHERE title = ?", Long.class, title)).isOne();
+    }
+
+    @Test
+    void actionsForAnotherUserAreRejected() {
+        Event event = new Event();
+        event.setName("Batch relay");
+        event.setStatus("OPEN");
+        BatchAction register = new BatchAction();
+        register.setType("REGISTER");
+        register.setEventId(eventRepository.save(event).getId());
+        register.setUserId(villager.getId());
+        String title = "batch " + UUID.randomUUID();
+
+        List<BatchActionResult> results = batchActionService.apply(
+                List.of(post(villager.getId(), title), register), villager.getId() + 1000);
+
+        assertThat(results).extracting(BatchActionResult::isSuccess).containsExactly(false, false);
+        assertThat(results).extracting(BatchActionResult::getConflict).containsOnly("Action belongs to another user");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction WHERE title = ?", Long.class, title)).isZero();
+    }
+
+    private static BatchAction post(Long userId, String title) {
+        Interaction interaction = new Interaction();
+        interaction.setUserId(userId);
+        interaction.setType(InteractionType.values()[0]);
+        interaction.setTitle(title);
+        BatchAction action = new BatchAction();
+        action.setType("POST");
+        action.setInteraction(interaction);
+        return action;
+    }
+}
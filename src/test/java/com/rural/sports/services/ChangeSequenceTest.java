@@ -0,0 +1,58 @@
+package com.rural.sports.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChangeSequenceTest {
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void uncommittedValueStaysAboveTheWatermark() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Long[]> writer = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(tx -> {
+            long first = changeSequence.next();
+            long second = changeSequence.next();
+            taken.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Long[]{first, second};
+        }));
+
+        assertThat(taken.await(10, TimeUnit.SECONDS)).isTrue();
+        long watermarkWhileOpen = changeSequence.watermark();
+        commit.countDown();
+        Long[] values = writer.get(10, TimeUnit.SECONDS);
+
+        assertThat(values[1]).isEqualTo(values[0] + 1);
+        assertThat(watermarkWhileOpen).isLessThan(values[0]);
+        assertThat(changeSequence.watermark()).isGreaterThanOrEqualTo(values[1]);
+        long next = transactionTemplate.execute(tx -> changeSequence.next());
+        assertThat(next).isGreaterThan(values[1]);
+    }
+
+    @Test
+    void valueOutsideATransactionIsRefused() {
+        assertThatThrownBy(() -> changeSequence.next()).isInstanceOf(IllegalStateException.class);
+    }
+}
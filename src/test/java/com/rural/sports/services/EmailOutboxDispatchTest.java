@@ -0,0 +1,172 @@
+package com.rural.sports.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.rural.sports.models.EmailOutbox;
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import com.rural.sports.models.User;
+import com.rural.sports.repositories.EmailOutboxRepository;
+import com.rural.sports.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "notification.mail.enabled=true",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        // Dispatch is driven by the tests
+        "notification.mail.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatchTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void committedNotificationIsSent() throws Exception {
+        String address = uniqueAddress();
+        transactionTemplate.executeWithoutResult(tx -> notificationService.notify(villager(address), "Approved", "Thanks!"));
+        assertThat(outbox(address)).singleElement().extracting(EmailOutbox::getStatus).isEqualTo("PENDING");
+
+        emailDispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo(address);
+        assertThat(received[0].getSubject()).isEqualTo("Approved");
+        EmailOutbox sent = outbox(address).get(0);
+        assertThat(sent.getStatus()).isEqualTo("SENT");
+        assertThat(sent.getSentAt()).isNotNull();
+    }
+
+    @Test
+    void rolledBackNotificationIsNeverQueued() {
+        String address = uniqueAddress();
+        transactionTemplate.executeWithoutResult(tx -> {
+            notificationService.notify(villager(address), "Approved", "Thanks!");
+            tx.setRollbackOnly();
+        });
+
+        emailDispatcher.dispatch();
+
+        assertThat(outbox(address)).isEmpty();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void unreachableServerIsRetriedWithBackoff() {
+        String address = uniqueAddress();
+        notificationService.notify(villager(address), "Approved", "Thanks!");
+        greenMail.stop();
+
+        Date before = new Date();
+        emailDispatcher.dispatch();
+
+        EmailOutbox email = outbox(address).get(0);
+        assertThat(email.getStatus()).isEqualTo("PENDING");
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isAfter(before);
+    }
+
+    @Test
+    void replyToLongestTitleFitsTheSubjectColumn() throws Exception {
+        String address = uniqueAddress();
+        User author = villager(address);
+        author.setUsername("author-" + UUID.randomUUID());
+        author.setPassword("secret");
+        author.setRole("VILLAGER");
+        author.setStatus("APPROVED");
+        author = userRepository.save(author);
+        Interaction question = new Interaction();
+        question.setType(InteractionType.CONSULT);
+        question.setUserId(author.getId());
+        question.setTitle("q".repeat(255));
+        question.setContent("When does the pitch open?");
+        question = interactionService.addInteraction(question);
+
+        interactionService.replyInteraction(question.getId(), "At eight.");
+
+        EmailOutbox queued = outbox(address).get(0);
+        assertThat(queued.getSubject()).hasSize(255).startsWith("Your question has been answered: q").endsWith("...");
+        emailDispatcher.dispatch();
+        assertThat(greenMail.getReceivedMessages()).singleElement()
+                .satisfies(message -> assertThat(message.getSubject()).isEqualTo(queued.getSubject()));
+    }
+
+    @Test
+    void rowClaimedByAnotherDispatcherIsNotSentUntilItsLeaseRunsOut() {
+        String address = uniqueAddress();
+        notificationService.notify(villager(address), "Approved", "Thanks!");
+        Long id = outbox(address).get(0).getId();
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'SENDING', claimed_by = 'other-node', next_attempt_at = ? WHERE id = ?",
+                new Date(System.currentTimeMillis() + 60_000), id);
+
+        emailDispatcher.dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(outbox(address).get(0).getStatus()).isEqualTo("SENDING");
+
+        // The other node died: once the lease is over the row is claimed and sent here.
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ? WHERE id = ?",
+                new Date(System.currentTimeMillis() - 1_000), id);
+        emailDispatcher.dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        EmailOutbox sent = outbox(address).get(0);
+        assertThat(sent.getStatus()).isEqualTo("SENT");
+        assertThat(sent.getClaimedBy()).isNull();
+    }
+
+    private List<EmailOutbox> outbox(String address) {
+        return emailOutboxRepository.findAll().stream()
+                .filter(email -> address.equals(email.getRecipient()))
+                .collect(Collectors.toList());
+    }
+
+    private static User villager(String address) {
+        User user = new User();
+        user.setContactInfo(address);
+        return user;
+    }
+
+    private static String uniqueAddress() {
+        return UUID.randomUUID() + "@village.example";
+    }
+}
@@ -0,0 +1,46 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EngagementCountersTest {
+
+    @Autowired
+    private EngagementCounters engagementCounters;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countsFlushedByAnotherNodeAreAddedToTheTotals() {
+        Interaction notice = new Interaction();
+        notice.setType(InteractionType.NOTICE);
+        notice.setTitle("Pitch closed on Sunday");
+        Long id = interactionService.addInteraction(notice).getId();
+        engagementCounters.recordView(id);
+        engagementCounters.recordView(id);
+
+        // Another node flushes its counts for the same notice.
+        jdbcTemplate.update("UPDATE interaction SET view_count = view_count + 5, like_count = like_count + 1 WHERE id = ?", id);
+        engagementCounters.flush();
+
+        assertThat(engagementCounters.views(id)).isEqualTo(7);
+        assertThat(engagementCounters.likes(id)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT view_count FROM interaction WHERE id = ?", Long.class, id)).isEqualTo(7);
+
+        engagementCounters.recordLike(id);
+        assertThat(engagementCounters.likes(id)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,97 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Interaction;
+import com.rural.sports.models.InteractionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "interaction.write-behind.enabled=true")
+@ActiveProfiles("test")
+class InteractionWriteBehindBufferTest {
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private InteractionWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void overlongTitleIsRejectedBeforeItIsQueued() {
+        Interaction post = post("x".repeat(256));
+
+        assertThatThrownBy(() -> interactionService.addInteraction(post))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(writeBehindBuffer.isPending(post.getId())).isFalse();
+    }
+
+    @Test
+    void queuedAndDirectPostsGetDistinctIds() {
+        Interaction queued = interactionService.addInteraction(post("queued " + UUID.randomUUID()));
+        Interaction direct = interactionService.addInteractionInTransaction(post("direct " + UUID.randomUUID()));
+        writeBehindBuffer.flushNow();
+
+        assertThat(queued.getId()).isNotEqualTo(direct.getId());
+        assertThat(titleOf(queued.getId())).isEqualTo(queued.getTitle());
+        assertThat(titleOf(direct.getId())).isEqualTo(direct.getTitle());
+    }
+
+    @Test
+    void rowTheDatabaseKeepsRejectingIsDeadLettered() throws Exception {
+        String rejected = "rejected " + UUID.randomUUID();
+        jdbcTemplate.execute("ALTER TABLE interaction ADD CONSTRAINT ck_test_rejected CHECK (title <> '" + rejected + "')");
+        try {
+            Interaction bad = interactionService.addInteraction(post(rejected));
+            Interaction good = interactionService.addInteraction(post("accepted " + UUID.randomUUID()));
+
+            assertThat(within(10_000, () -> !writeBehindBuffer.isPending(good.getId()))).isTrue();
+            assertThat(titleOf(good.getId())).isEqualTo(good.getTitle());
+            assertThat(writeBehindBuffer.isPending(bad.getId())).isFalse();
+            // The test profile's journal directory is random per lookup, so ask the buffer for its own.
+            String journalDir = (String) ReflectionTestUtils.getField(writeBehindBuffer, "journalDir");
+            Path deadLetter = Paths.get(journalDir, "interactions.deadletter");
+            assertThat(Files.readString(deadLetter)).contains(rejected);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE interaction DROP CONSTRAINT ck_test_rejected");
+        }
+    }
+
+    private String titleOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT title FROM interaction WHERE id = ?", String.class, id);
+    }
+
+    private static Interaction post(String title) {
+        Interaction interaction = new Interaction();
+        interaction.setType(InteractionType.BOARD);
+        interaction.setTitle(title);
+        return interaction;
+    }
+
+    private static boolean within(long millis, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.rural.sports.services;
+
+import com.rural.sports.RuralSportsPlatformApplication;
+import com.rural.sports.models.Material;
+import com.rural.sports.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts in one JVM act as two nodes: they share the H2 database but each has
+ * its own data directories, and a write on one must reach the other's caches through the bus.
+ */
+class InvalidationBusTest {
+
+    @TempDir
+    Path dataDir;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = start(dataDir.resolve("a"));
+        nodeB = start(dataDir.resolve("b"));
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void materialChangesReachTheOtherNode() {
+        String village = "bus-" + UUID.randomUUID();
+        User donor = new User();
+        donor.setUsername(village);
+        donor.setPassword("secret");
+        donor.setRole("VILLAGER");
+        donor.setStatus("APPROVED");
+        donor.setVillage(village);
+        donor = nodeA.getBean(UserService.class).createUser(donor);
+
+        MaterialService materials = nodeA.getBean(MaterialService.class);
+        Material material = materials.createDonation(Map.of("name", "bus ball", "type", "BALL",
+                "conditionLevel", 5, "donorId", donor.getId()));
+        MaterialFacetIndex indexB = nodeB.getBean(MaterialFacetIndex.class);
+        Long id = material.getId();
+        assertThat(within(10_000, () -> hasStatus(indexB, village, id, "PENDING"))).isTrue();
+
+        materials.updateMaterialStatus(id, "IN_STOCK");
+        assertThat(within(10_000, () -> hasStatus(indexB, village, id, "IN_STOCK"))).isTrue();
+    }
+
+    private static ConfigurableApplicationContext start(Path dir) {
+        return new SpringApplicationBuilder(RuralSportsPlatformApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--interaction.write-behind.journal-dir=" + dir.resolve("interaction-journal"),
+                        "--material.audit.dir=" + dir.resolve("material-audit"));
+    }
+
+    private static boolean hasStatus(MaterialFacetIndex index, String village, Long id, String status) {
+        return index.search(Map.of(MaterialFacetIndex.STATUS, List.of(status), MaterialFacetIndex.VILLAGE, List.of(village)),
+                null, 0, 1000).getItems().stream().anyMatch(item -> id.equals(item.getId()));
+    }
+
+    private static boolean within(long millis, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
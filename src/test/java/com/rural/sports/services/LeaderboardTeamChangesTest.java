@@ -0,0 +1,88 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Event;
+import com.rural.sports.models.Match;
+import com.rural.sports.models.Team;
+import com.rural.sports.models.TeamStanding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaderboardTeamChangesTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    private Event event;
+    private Team home;
+    private Team away;
+    private Match match;
+
+    @BeforeEach
+    void playOneMatch() {
+        event = event("Football");
+        home = teamService.createTeam(team("Hill", event));
+        away = teamService.createTeam(team("River", event));
+        match = matchService.createMatch(Map.of("eventId", event.getId(), "homeTeamId", home.getId(), "awayTeamId", away.getId()));
+        matchService.updateScore(match.getId(), 2, 1, Match.LIVE);
+    }
+
+    @Test
+    void omittedScoreKeepsTheCurrentOne() {
+        Match updated = matchService.updateScore(match.getId(), null, 3, null);
+
+        assertThat(updated.getHomeScore()).isEqualTo(2);
+        assertThat(updated.getAwayScore()).isEqualTo(3);
+        assertThat(updated.getStatus()).isEqualTo(Match.LIVE);
+        assertThat(leaderboardService.standing(event.getId(), away.getId()).getGoalsFor()).isEqualTo(3);
+    }
+
+    @Test
+    void movedTeamLeavesTheOldBoard() {
+        Event other = event("Basketball");
+        teamService.updateTeam(home.getId(), team("Hill", other));
+
+        assertThat(leaderboardService.standing(event.getId(), home.getId())).isNull();
+        assertThat(leaderboardService.standing(other.getId(), home.getId())).isNotNull();
+        assertThat(leaderboardService.standing(event.getId(), away.getId()).getPlayed()).isZero();
+    }
+
+    @Test
+    void deletedTeamLeavesTheBoard() {
+        teamService.deleteTeam(home.getId());
+
+        assertThat(leaderboardService.top(event.getId(), 10)).extracting(TeamStanding::getTeamId).containsExactly(away.getId());
+        assertThat(leaderboardService.standing(event.getId(), away.getId()).getPlayed()).isZero();
+    }
+
+    private Event event(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setStatus("OPEN");
+        return eventService.createEvent(event);
+    }
+
+    private static Team team(String name, Event event) {
+        Team team = new Team();
+        team.setName(name);
+        team.setEvent(event);
+        return team;
+    }
+}
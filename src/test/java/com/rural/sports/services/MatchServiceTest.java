@@ -0,0 +1,80 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Event;
+import com.rural.sports.models.Match;
+import com.rural.sports.models.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MatchServiceTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Event event;
+    private Team away;
+    private Match match;
+
+    @BeforeEach
+    void scheduleMatch() {
+        event = new Event();
+        event.setName("Football");
+        event.setStatus("OPEN");
+        event = eventService.createEvent(event);
+        Team home = teamService.createTeam(team("Hill"));
+        away = teamService.createTeam(team("River"));
+        match = matchService.createMatch(Map.of("eventId", event.getId(), "homeTeamId", home.getId(), "awayTeamId", away.getId()));
+    }
+
+    @Test
+    void scoreSetOnAnotherNodeIsNotOverwritten() {
+        matchService.updateScore(match.getId(), 2, null, Match.LIVE);
+        // Meanwhile another node writes the away score.
+        jdbcTemplate.update("UPDATE matches SET away_score = 3, status = 'LIVE' WHERE id = ?", match.getId());
+
+        matchService.flush();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT home_score, away_score, status FROM matches WHERE id = ?", match.getId());
+        assertThat(row).containsEntry("HOME_SCORE", 2).containsEntry("AWAY_SCORE", 3).containsEntry("STATUS", Match.LIVE);
+        assertThat(leaderboardService.standing(event.getId(), away.getId()).getGoalsFor()).isEqualTo(3);
+    }
+
+    @Test
+    void negativeScoreIsRejected() {
+        assertThatThrownBy(() -> matchService.updateScore(match.getId(), -1, 0, Match.LIVE))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(matchService.getMatches(event.getId())).singleElement()
+                .satisfies(m -> assertThat(m.getHomeScore()).isNull());
+    }
+
+    private Team team(String name) {
+        Team team = new Team();
+        team.setName(name);
+        team.setEvent(event);
+        return team;
+    }
+}
@@ -0,0 +1,59 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.MaterialAuditState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaterialAuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readOnlyReplayMatchesTheLiveLogWithoutTouchingIt() throws Exception {
+        MaterialAuditLog log = new MaterialAuditLog(directory.toString(), 2);
+        log.open();
+        log.append(MaterialAuditLog.DONATE, 1, 7, null, "PENDING");
+        log.append(MaterialAuditLog.APPROVE, 1, 0, "PENDING", "IN_STOCK");
+        log.append(MaterialAuditLog.BORROW, 1, 9, "IN_STOCK", "BORROWED");
+        log.append(MaterialAuditLog.DONATE, 2, 7, null, "PENDING");
+        log.append(MaterialAuditLog.DELETE, 2, 0, "PENDING", null);
+        log.flush();
+        List<Path> segmentsBefore = segments();
+        long sizeBefore = Files.size(segmentsBefore.get(segmentsBefore.size() - 1));
+
+        Map<Long, MaterialAuditState> replayed = MaterialAuditLog.replayReadOnly(directory);
+
+        assertThat(replayed.keySet()).containsExactly(1L);
+        MaterialAuditState state = replayed.get(1L);
+        assertThat(state.getStatus()).isEqualTo("BORROWED");
+        assertThat(state.getDonorId()).isEqualTo(7L);
+        assertThat(state.getHolderId()).isEqualTo(9L);
+        assertThat(replayed.keySet()).isEqualTo(log.replay().keySet());
+        assertThat(segments()).isEqualTo(segmentsBefore);
+        assertThat(Files.size(segmentsBefore.get(segmentsBefore.size() - 1))).isEqualTo(sizeBefore);
+    }
+
+    @Test
+    void readOnlyReplayOfAMissingDirectoryCreatesNothing() throws Exception {
+        Path missing = directory.resolve("missing");
+
+        assertThat(MaterialAuditLog.replayReadOnly(missing)).isEmpty();
+        assertThat(missing).doesNotExist();
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.rural.sports.services;
+
+import com.rural.sports.models.Material;
+import com.rural.sports.models.MaterialSearchResult;
+import com.rural.sports.repositories.MaterialRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MaterialFacetIndexTest {
+
+    @Autowired
+    private MaterialFacetIndex materialFacetIndex;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Test
+    void pageBeyondIntRangeIsEmpty() {
+        Material ball = new Material();
+        ball.setName("Facet ball");
+        ball.setStatus("IN_STOCK");
+        materialFacetIndex.put(materialRepository.save(ball));
+
+        // 107374183 * 20 overflows int to a negative skip, which used to return the first page
+        MaterialSearchResult result = materialFacetIndex.search(Map.of(), null, 107374183, 20);
+
+        assertThat(result.getTotal()).isPositive();
+        assertThat(result.getItems()).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package com.rural.sports.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MaterialImportServiceTest {
+
+    @Autowired
+    private MaterialImportService materialImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void overlongNameIsARowError() throws Exception {
+        String name = "Ball " + UUID.randomUUID();
+
+        List<JsonNode> report = importNdjson("{\"name\":\"" + name + "\"}", "{\"name\":\"" + "x".repeat(256) + "\"}");
+
+        assertThat(report.get(0).get("line").asInt()).isEqualTo(2);
+        assertThat(report.get(0).get("error").asText()).contains("at most 255");
+        assertThat(done(report).get("inserted").asLong()).isOne();
+        assertThat(done(report).get("errors").asLong()).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM materials WHERE name = ?", Long.class, name)).isOne();
+    }
+
+    @Test
+    void rejectedChunkIsReportedAndTheImportFinishes() throws Exception {
+        String name = "Ball " + UUID.randomUUID();
+        String rejected = "rejected " + UUID.randomUUID();
+        jdbcTemplate.execute("ALTER TABLE materials ADD CONSTRAINT ck_import_rejected CHECK (name <> '" + rejected + "')");
+        try {
+            List<JsonNode> report = importNdjson("{\"name\":\"" + name + "\"}", "{\"name\":\"" + rejected + "\"}");
+
+            assertThat(report.get(0).get("line").asInt()).isEqualTo(1);
+            assertThat(report.get(0).get("lastLine").asInt()).isEqualTo(2);
+            assertThat(report.get(0).get("error").asText()).startsWith("Not imported");
+            assertThat(done(report).get("inserted").asLong()).isZero();
+            assertThat(done(report).get("errors").asLong()).isEqualTo(2);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM materials WHERE name = ?", Long.class, name)).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE materials DROP CONSTRAINT ck_import_rejected");
+        }
+    }
+
+    private List<JsonNode> importNdjson(String... lines) throws Exception {
+        StringWriter report = new StringWriter();
+        materialImportService.importMaterials(new BufferedReader(new StringReader(String.join("\n", lines))), true, report);
+        List<JsonNode> entries = new ArrayList<>();
+        for (String line : report.toString().split("\n")) {
+            entries.add(objectMapper.readTree(line));
+        }
+        return entries;
+    }
+
+    private static JsonNode done(List<JsonNode> report) {
+        JsonNode last = report.get(report.size() - 1);
+        assertThat(last.has("done")).isTrue();
+        return last;
+    }
+}
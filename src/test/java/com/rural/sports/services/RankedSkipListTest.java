@@ -0,0 +1,52 @@
+package com.rural.sports.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedSkipListTest {
+
+    @Test
+    void rankAndRangeMatchASortedSetAfterRandomInsertsAndRemoves() {
+        Random random = new Random(42);
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(value)).isEqualTo(expected.remove(value));
+            } else if (expected.add(value)) {
+                list.insert(value);
+            }
+
+            if (step % 250 == 0) {
+                assertMatches(list, expected, random);
+            }
+        }
+        assertMatches(list, expected, random);
+    }
+
+    private static void assertMatches(RankedSkipList<Integer> list, TreeSet<Integer> expected, Random random) {
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertThat(list.size()).isEqualTo(sorted.size());
+        assertThat(list.range(1, sorted.size())).isEqualTo(sorted);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(list.rank(sorted.get(i))).isEqualTo(i + 1);
+        }
+        assertThat(list.rank(-1)).isZero();
+        if (!sorted.isEmpty()) {
+            int from = 1 + random.nextInt(sorted.size());
+            int count = random.nextInt(20);
+            assertThat(list.range(from, count))
+                    .isEqualTo(sorted.subList(from - 1, Math.min(sorted.size(), from - 1 + count)));
+        }
+        assertThat(list.range(sorted.size() + 1, 5)).isEmpty();
+    }
+}
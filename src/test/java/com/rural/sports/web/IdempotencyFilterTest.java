@@ -0,0 +1,122 @@
+package com.rural.sports.web;
+
+import com.rural.sports.repositories.EventRepository;
+import com.rural.sports.services.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @SpyBean
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void repeatedKeyReplaysTheStoredResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = eventRepository.count();
+
+        MvcResult first = mockMvc.perform(createEvent("alice", key)).andExpect(status().isOk()).andReturn();
+        MvcResult second = mockMvc.perform(createEvent("alice", key))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(eventRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = eventRepository.count();
+
+        mockMvc.perform(createEvent("alice", key)).andExpect(status().isOk());
+        mockMvc.perform(createEvent("bob", key))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertThat(eventRepository.count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void keyStillExecutingIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String scoped = "alice|POST /api/events|" + key;
+        assertThat(idempotencyService.begin(scoped)).isTrue();
+        try {
+            mockMvc.perform(createEvent("alice", key)).andExpect(status().isConflict());
+        } finally {
+            idempotencyService.abandon(scoped);
+        }
+    }
+
+    @Test
+    void responseStoredBetweenFindAndBeginIsReplayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String scoped = "alice|POST /api/events|" + key;
+        MvcResult first = mockMvc.perform(createEvent("alice", key)).andExpect(status().isOk()).andReturn();
+        long before = eventRepository.count();
+        // The retry's first lookup runs before the original request stored its response.
+        doReturn(null).doCallRealMethod().when(idempotencyService).find(scoped);
+
+        mockMvc.perform(createEvent("alice", key))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string(first.getResponse().getContentAsString()));
+
+        assertThat(eventRepository.count()).isEqualTo(before);
+        assertThat(idempotencyService.begin(scoped)).isTrue();
+        idempotencyService.abandon(scoped);
+    }
+
+    @Test
+    void overlongKeyIsRejected() throws Exception {
+        mockMvc.perform(createEvent("alice", "k".repeat(129))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void failedRequestCanBeRetriedWithTheSameKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/events").with(user("alice")).header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content("not json"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(createEvent("alice", key))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    private static MockHttpServletRequestBuilder createEvent(String username, String key) {
+        return post("/api/events")
+                .with(user(username))
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Tug of war\",\"status\":\"OPEN\"}");
+    }
+}